@@ -15,6 +15,9 @@ import com.slaviboy.fingerdraw.Circle;
 import com.slaviboy.fingerdraw.Path;
 import com.slaviboy.gestures.Finger;
 import com.slaviboy.gestures.GestureDetector;
+import com.slaviboy.gestures.Recognizer;
+import com.slaviboy.gestures.RecognizerPipeline;
+import com.slaviboy.gestures.TouchFrame;
 
 import static com.slaviboy.gesturesexample.Base.hideSystemUI;
 
@@ -26,6 +29,7 @@ public class MainActivity extends AppCompatActivity implements
     private TextView fingerTwoValue;
     private GestureDetector detector;
     private Canvas canvas;
+    private RecognizerPipeline pipeline;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -49,6 +53,17 @@ public class MainActivity extends AppCompatActivity implements
         detector = new GestureDetector();
         detector.setOnGestureListener(this);
 
+        // decode each event once, for the canvas finger draw and the detector
+        pipeline = new RecognizerPipeline();
+        pipeline.addRecognizer(new Recognizer() {
+            @Override
+            public boolean onFrame(TouchFrame frame) {
+                canvas.onTouch(frame.getView(), frame.getMotionEvent());
+                return false;
+            }
+        });
+        pipeline.addRecognizer(detector);
+
         setTypeFace();
     }
 
@@ -110,10 +125,8 @@ public class MainActivity extends AppCompatActivity implements
     @Override
     public boolean onTouch(View v, MotionEvent event) {
 
-        // for canvas finger draw visualization
-        canvas.onTouch(v, event);
-
-        return detector.onTouch(v, event);
+        // for canvas finger draw visualization and gesture detection
+        return pipeline.onTouch(v, event);
     }
 
     @Override
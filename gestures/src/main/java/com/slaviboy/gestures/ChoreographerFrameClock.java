@@ -0,0 +1,177 @@
+package com.slaviboy.gestures;
+
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+import java.util.Arrays;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Frame clock that takes the frame time from the Choreographer. The frame callbacks run after
+ * the input is dispatched, so during the input the last received frame time belongs to the
+ * previous frame. That is why the time of the current frame is predicted from the last frame
+ * time and the measured frame interval. While the clock is started, a frame callback is posted
+ * for each frame, so it must be used from a thread with a looper, usually the main thread.
+ * Before the first frame the current uptime is returned.
+ */
+public class ChoreographerFrameClock implements FrameClock, Choreographer.FrameCallback {
+
+    // public default constants
+    public static final long FRAME_INTERVAL = 16666667;  // frame interval used until it is measured (ns)
+    public static final long TOLERANCE = 1000000;        // how early input still belongs to the next frame (ns)
+
+    private long frameTimeNanos;         // time of the last frame (ns)
+    private long frameInterval;          // measured time between two frames (ns)
+    private boolean running;             // if frame callback is posted for each frame
+    private boolean posted;              // if frame callback is posted to the Choreographer
+    private Runnable[] callbacks;        // callbacks that are run on the next frame
+    private int callbackCount;           // number of callbacks
+    private Runnable[] frameCallbacks;   // callbacks taken for the current frame, removed ones are set to null
+    private int frameCallbackCount;      // number of callbacks taken for the current frame, 0 outside doFrame()
+
+    public ChoreographerFrameClock() {
+        frameInterval = FRAME_INTERVAL;
+        callbacks = new Runnable[4];
+        frameCallbacks = new Runnable[4];
+    }
+
+    /**
+     * Start receiving the frame times.
+     */
+    public void start() {
+        running = true;
+        post();
+    }
+
+    /**
+     * Stop receiving the frame times, the time of the last frame is kept. The posted
+     * callbacks are still run on the next frame.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void post() {
+        if (!posted) {
+            posted = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        posted = false;
+
+        // update the frame interval, skipped frames are counted as multiple intervals
+        long delta = frameTimeNanos - this.frameTimeNanos;
+        if (this.frameTimeNanos != 0 && delta > 0) {
+            long frames = Math.max(1, Math.round((double) delta / frameInterval));
+            frameInterval += (delta / frames - frameInterval) / 4;
+        }
+        this.frameTimeNanos = frameTimeNanos;
+
+        // take the callbacks posted until now, the ones posted while running are left for the next
+        // frame, and the ones removed while running are set to null in the taken callbacks
+        System.arraycopy(callbacks, 0, frameCallbacks, 0, callbackCount);
+        Arrays.fill(callbacks, 0, callbackCount, null);
+        frameCallbackCount = callbackCount;
+        callbackCount = 0;
+        for (int i = 0; i < frameCallbackCount; i++) {
+            Runnable callback = frameCallbacks[i];
+            if (callback != null) {
+                frameCallbacks[i] = null;
+                callback.run();
+            }
+        }
+        frameCallbackCount = 0;
+
+        if (running || callbackCount > 0) {
+            post();
+        }
+    }
+
+    /**
+     * Get the time of the frame, in which the input received now is drawn. It is the last
+     * vsync time up to now, predicted from the last frame time and the frame interval.
+     *
+     * @return frame time (ms)
+     */
+    @Override
+    public long getFrameTime() {
+        if (frameTimeNanos == 0) {
+            return SystemClock.uptimeMillis();
+        }
+        long elapsed = System.nanoTime() - frameTimeNanos + TOLERANCE;
+        long frames = elapsed > 0 ? elapsed / frameInterval : 0;
+        return (frameTimeNanos + frames * frameInterval) / 1000000;
+    }
+
+    @Override
+    public void postFrameCallback(Runnable callback) {
+        for (int i = 0; i < callbackCount; i++) {
+            if (callbacks[i] == callback) {
+                return;
+            }
+        }
+        for (int i = 0; i < frameCallbackCount; i++) {
+            if (frameCallbacks[i] == callback) {
+                return;
+            }
+        }
+        if (callbackCount == callbacks.length) {
+            callbacks = Arrays.copyOf(callbacks, callbackCount * 2);
+            frameCallbacks = Arrays.copyOf(frameCallbacks, callbacks.length);
+        }
+        callbacks[callbackCount++] = callback;
+        post();
+    }
+
+    @Override
+    public void removeFrameCallback(Runnable callback) {
+        for (int i = 0; i < frameCallbackCount; i++) {
+            if (frameCallbacks[i] == callback) {
+                frameCallbacks[i] = null;
+            }
+        }
+        for (int i = 0; i < callbackCount; i++) {
+            if (callbacks[i] == callback) {
+                System.arraycopy(callbacks, i + 1, callbacks, i, callbackCount - i - 1);
+                callbacks[--callbackCount] = null;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get the measured time between two frames.
+     *
+     * @return frame interval (ns)
+     */
+    public long getFrameInterval() {
+        return frameInterval;
+    }
+}
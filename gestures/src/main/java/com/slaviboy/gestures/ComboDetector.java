@@ -0,0 +1,298 @@
+package com.slaviboy.gestures;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Class that detects combos - sequences of finger state changes like SWIPE_UP followed
+ * by SWIPE_RIGHT within 300ms, or finger 0 HOLD_DOWN followed by finger 1 DOUBLE_TAP.
+ * Each combo is matched independently with the Shift-And algorithm, it keeps a bitmask
+ * with its partial matches, where bit i is set when the last i + 1 state changes used by
+ * the combo match its first i + 1 steps. A state change only advances the combos that use
+ * its state, each with a few bit operations, so the cost does not depend on the combos
+ * that do not use it.
+ * <p>
+ * Each combo ignores the states it does not use, so for example the UP and DOWN states
+ * between SWIPE_UP and SWIPE_RIGHT do not break the sequence, and registering other
+ * combos never changes whether a combo matches. A state used by the combo, but made with
+ * other finger than the step expects, breaks the sequence. The detector is registered to
+ * the GestureDetector as a listener, using getStateMask():
+ * <pre>
+ * detector.addOnGestureListener(comboDetector, comboDetector.getStateMask());
+ * </pre>
+ */
+public class ComboDetector implements GestureDetector.OnGestureListener {
+
+    public static final int ANY_FINGER = -1;           // step in a combo, that can be made with any finger
+    public static final int MAX_STEPS = 64;            // max number of steps in a combo, that fit in the match bitmask
+
+    private int numberOfFingers;                       // number of fingers, that can be given for the combo steps
+    private int stateMask;                             // bitmask with all states used in the combos
+
+    // combos added before compile()
+    private ArrayList<int[]> comboFingers;             // finger index for each step of each combo
+    private ArrayList<int[]> comboStates;              // state for each step of each combo
+    private int[] comboMaxIntervals;                   // max time between two consecutive steps for each combo (ms)
+
+    // compiled combos
+    private int[][] combosByState;                     // ids of the combos that use each state
+    private long[] stateSteps;                         // steps with the state, for [id * STATE_COUNT + state]
+    private long[] anyFingerSteps;                     // steps made with ANY_FINGER for each combo
+    private long[] fingerSteps;                        // steps made with the finger, for [id * numberOfFingers + finger]
+    private long[] lastSteps;                          // bit of the last step for each combo
+    private boolean compiled;                          // if the combos are compiled and can be used
+
+    // matching state for each combo
+    private long[] matches;                            // partial matches, bit i - the first i + 1 steps are matched
+    private long[] times;                              // time of the last state change used by the combo (ms)
+
+    private OnComboListener onComboListener;           // listener called when combo is detected
+
+    public ComboDetector() {
+        this(2);
+    }
+
+    public ComboDetector(int numberOfFingers) {
+        this.numberOfFingers = numberOfFingers;
+        comboFingers = new ArrayList<>();
+        comboStates = new ArrayList<>();
+        comboMaxIntervals = new int[0];
+    }
+
+    /**
+     * Add combo that is detected, when the given states are made one after another, and
+     * the time between each two consecutive states is not bigger than -maxInterval. The
+     * combos are used only after calling compile().
+     *
+     * @param fingers     - finger index for each step, or ANY_FINGER
+     * @param states      - finger state for each step like SWIPE_UP, HOLD_DOWN...
+     * @param maxInterval - max time between two consecutive steps (ms)
+     * @return the combo id, passed to the listener when the combo is detected
+     */
+    public int addCombo(int[] fingers, int[] states, int maxInterval) {
+
+        if (fingers.length != states.length || states.length == 0) {
+            throw new IllegalArgumentException("Fingers and states must have the same non zero length");
+        }
+        if (states.length > MAX_STEPS) {
+            throw new IllegalArgumentException("Combo can have max " + MAX_STEPS + " steps");
+        }
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] < 0 || states[i] >= GestureDetector.STATE_COUNT) {
+                throw new IllegalArgumentException("Unknown state " + states[i]);
+            }
+            if (fingers[i] != ANY_FINGER && (fingers[i] < 0 || fingers[i] >= numberOfFingers)) {
+                throw new IllegalArgumentException("Finger index " + fingers[i] + " is out of range");
+            }
+        }
+
+        int id = comboFingers.size();
+        comboFingers.add(fingers.clone());
+        comboStates.add(states.clone());
+        comboMaxIntervals = Arrays.copyOf(comboMaxIntervals, id + 1);
+        comboMaxIntervals[id] = maxInterval;
+        compiled = false;
+        return id;
+    }
+
+    /**
+     * Add combo, where each step can be made with any finger.
+     *
+     * @param states      - finger state for each step like SWIPE_UP, HOLD_DOWN...
+     * @param maxInterval - max time between two consecutive steps (ms)
+     * @return the combo id, passed to the listener when the combo is detected
+     */
+    public int addCombo(int[] states, int maxInterval) {
+        int[] fingers = new int[states.length];
+        Arrays.fill(fingers, ANY_FINGER);
+        return addCombo(fingers, states, maxInterval);
+    }
+
+    /**
+     * Compile all added combos into the step bitmasks, and the lists with the combos
+     * that use each state.
+     */
+    public void compile() {
+
+        int combos = comboFingers.size();
+        int stateCount = GestureDetector.STATE_COUNT;
+        stateSteps = new long[combos * stateCount];
+        anyFingerSteps = new long[combos];
+        fingerSteps = new long[combos * numberOfFingers];
+        lastSteps = new long[combos];
+        matches = new long[combos];
+        times = new long[combos];
+
+        stateMask = 0;
+        int[] counts = new int[stateCount];
+        for (int id = 0; id < combos; id++) {
+            int[] fingers = comboFingers.get(id);
+            int[] states = comboStates.get(id);
+            int comboMask = 0;
+            for (int step = 0; step < states.length; step++) {
+                long bit = 1L << step;
+                stateSteps[id * stateCount + states[step]] |= bit;
+                if (fingers[step] == ANY_FINGER) {
+                    anyFingerSteps[id] |= bit;
+                } else {
+                    fingerSteps[id * numberOfFingers + fingers[step]] |= bit;
+                }
+                comboMask |= 1 << states[step];
+            }
+            lastSteps[id] = 1L << (states.length - 1);
+            stateMask |= comboMask;
+            for (int state = 0; state < stateCount; state++) {
+                if ((comboMask & (1 << state)) != 0) {
+                    counts[state]++;
+                }
+            }
+        }
+
+        combosByState = new int[stateCount][];
+        for (int state = 0; state < stateCount; state++) {
+            combosByState[state] = new int[counts[state]];
+            counts[state] = 0;
+        }
+        for (int id = 0; id < combos; id++) {
+            for (int state = 0; state < stateCount; state++) {
+                if (stateSteps[id * stateCount + state] != 0) {
+                    combosByState[state][counts[state]++] = id;
+                }
+            }
+        }
+
+        compiled = true;
+        reset();
+    }
+
+    /**
+     * Reset the matching state, so the previous state changes are not used
+     * for the following combos.
+     */
+    public void reset() {
+        if (compiled) {
+            Arrays.fill(matches, 0);
+            Arrays.fill(times, 0);
+        }
+    }
+
+    @Override
+    public void onStateChange(Finger[] fingers, int fingerIndex) {
+        Finger finger = fingers[fingerIndex];
+        onTransition(fingerIndex, finger.getStateCurrent(), getStateTime(finger));
+    }
+
+    /**
+     * Get the time of the current finger state. Touch driven states have the event time,
+     * while the delayed hold-down and the delayed up after swipe or double tap are made
+     * without event, so they have the time when they are dispatched.
+     */
+    private static long getStateTime(Finger finger) {
+        int state = finger.getStateCurrent();
+        int stateLast = finger.getStateLast();
+        boolean delayed = state == GestureDetector.HOLD_DOWN || (state == GestureDetector.UP &&
+                !finger.isTracking() && (stateLast == GestureDetector.DOUBLE_TAP ||
+                (stateLast >= GestureDetector.SWIPE_UP && stateLast <= GestureDetector.SWIPE_RIGHT)));
+        return delayed ? SystemClock.uptimeMillis() : finger.getTimeCurrent();
+    }
+
+    /**
+     * Feed a state change to the combos that use its state, and call the listener for each
+     * combo that ends with it and whose steps are made within the combo time interval.
+     *
+     * @param fingerIndex - finger index whose state is changed
+     * @param state       - the new finger state
+     * @param time        - time of the state change (ms)
+     */
+    public void onTransition(int fingerIndex, int state, long time) {
+
+        // skip states that are not used in any combo
+        if (!compiled || (stateMask & (1 << state)) == 0 || fingerIndex < 0) {
+            return;
+        }
+
+        int stateCount = GestureDetector.STATE_COUNT;
+        int[] combos = combosByState[state];
+        for (int i = 0; i < combos.length; i++) {
+            int id = combos[i];
+
+            // steps that match the state and the finger
+            long fingerMask = anyFingerSteps[id];
+            if (fingerIndex < numberOfFingers) {
+                fingerMask |= fingerSteps[id * numberOfFingers + fingerIndex];
+            }
+            long steps = stateSteps[id * stateCount + state] & fingerMask;
+
+            // partial matches continue only when the step is made within the interval
+            long previous = time - times[id] <= comboMaxIntervals[id] ? matches[id] << 1 : 0;
+            matches[id] = (previous | 1) & steps;
+            times[id] = time;
+
+            if ((matches[id] & lastSteps[id]) != 0 && onComboListener != null) {
+                onComboListener.onCombo(id);
+            }
+        }
+    }
+
+    /**
+     * Get bitmask with all states used in the combos, that can be used when the
+     * detector is registered as listener. Available after compile() is called.
+     *
+     * @return
+     */
+    public int getStateMask() {
+        return stateMask;
+    }
+
+    public int getNumberOfFingers() {
+        return numberOfFingers;
+    }
+
+    public int getComboCount() {
+        return comboFingers.size();
+    }
+
+    public boolean isCompiled() {
+        return compiled;
+    }
+
+    public void setOnComboListener(OnComboListener onComboListener) {
+        this.onComboListener = onComboListener;
+    }
+
+    /**
+     * Public interface with one method, that can be implemented and listen
+     * for detected combos.
+     */
+    public interface OnComboListener {
+
+        /**
+         * Called when all steps of a combo are made within the combo time interval.
+         *
+         * @param comboId - id returned by addCombo()
+         */
+        void onCombo(int comboId);
+    }
+}
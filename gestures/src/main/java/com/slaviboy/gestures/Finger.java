@@ -41,6 +41,17 @@ public class Finger {
     public static final int MAX_DURATION_DOUBLE_TAP = 250;
     public static final int MAX_DOWN_DOUBLE_TAP = 100;
     public static final int SLOPE_INTOLERANCE = 1;
+    public static final int EARLY_SWIPE_DISTANCE = 60;
+    public static final double EARLY_SWIPE_VELOCITY = 0.5;
+    public static final double EARLY_SWIPE_SLOPE = 2;
+    public static final float FORCE_PRESS_THRESHOLD = 0.8f;
+    public static final int VELOCITY_WINDOW = 100;
+    public static final int VELOCITY_CAPACITY = 20;
+
+    // extra axes, that can be captured for each sample
+    public static final int AXIS_PRESSURE = 1;
+    public static final int AXIS_TOUCH_MAJOR = 2;
+    public static final int AXIS_ORIENTATION = 4;
 
     private int stateCurrent;                   // current finger state - down, up, swipe_left...
     private int stateLast;                      // previous finger state
@@ -81,6 +92,38 @@ public class Finger {
     private boolean updateLast;                   // if -positionLast should be updated from current event
 
     private Finger lastFinger;                    // last finger object from previous event, used to detect double tap
+    private Finger lastFingerValues;              // preallocated object for -lastFinger, null for the last finger itself
+
+    // jitter filter
+    private OneEuroFilter filterX;                // filter for the x coordinate, null if filtering is disabled
+    private OneEuroFilter filterY;                // filter for the y coordinate, null if filtering is disabled
+    private double directionHysteresis;           // how much more dominant a new move direction must be, to replace the current one (0 - disabled)
+
+    // early swipe, detected before the finger is lift up
+    private boolean earlySwipeEnabled;            // if swipe can be detected on move, before -ACTION_UP
+    private int earlySwipeDistance;               // min distance the finger must travel, before early swipe can be detected
+    private double earlySwipeVelocity;            // min average velocity since -ACTION_DOWN for early swipe (px/ms)
+    private double earlySwipeSlope;               // how much the slope intolerance is multiplied, for early swipe direction
+    private boolean swipeCommitted;               // if early swipe is already detected for the current stroke
+
+    // extra axes, one column (ring buffer) for each axis
+    private int axes;                             // bitmask with the captured AXIS_* values, 0 - disabled
+    private float[] pressures;                    // pressure for each sample, null if not captured
+    private float[] touchMajors;                  // touch major length for each sample, null if not captured
+    private float[] orientations;                 // orientation for each sample, null if not captured
+    private int axisSampleCount;                  // number of samples in the columns, since -ACTION_DOWN
+    private int axisSampleHead;                   // index in the columns, where the next sample will be saved
+    private float pressure;                       // current pressure
+    private float touchMajor;                     // current touch major length
+    private float orientation;                    // current orientation (rad)
+    private float forcePressThreshold;            // pressure at which FORCE_PRESS is detected
+    private boolean forcePressed;                 // if FORCE_PRESS is already detected for the current stroke
+
+    private FingerHistory history;                // timestamped positions since -ACTION_DOWN, null if disabled
+
+    // velocity estimate
+    private FingerHistory velocityHistory;        // latest timestamped positions, used to estimate the velocity, null for the last finger
+    private int velocityWindow;                   // time window before the latest position used for the velocity (ms)
 
     public Finger() {
 
@@ -122,6 +165,13 @@ public class Finger {
         this.timeCurrent = timeCurrent;
         this.tracking = tracking;
         this.updateLast = updateLast;
+        this.earlySwipeDistance = EARLY_SWIPE_DISTANCE;
+        this.earlySwipeVelocity = EARLY_SWIPE_VELOCITY;
+        this.earlySwipeSlope = EARLY_SWIPE_SLOPE;
+        this.forcePressThreshold = FORCE_PRESS_THRESHOLD;
+        this.velocityWindow = VELOCITY_WINDOW;
+        this.velocityHistory = new FingerHistory(VELOCITY_CAPACITY);
+        this.lastFingerValues = new Finger(maxDurationDoubleTap, maxDownDoubleTap);
 
         // for point objects
         this.positionDeltaInitial = copy(positionDeltaInitial);
@@ -131,6 +181,23 @@ public class Finger {
         this.positionCurrent = copy(positionCurrent);
     }
 
+    /**
+     * Create the object kept as -lastFinger, it gets only the primitive values of the
+     * previous touch with copyFrom(), and has no velocity history and no last finger.
+     *
+     * @param maxDurationDoubleTap - max time between the two taps (ms)
+     * @param maxDownDoubleTap     - max time each tap is down (ms)
+     */
+    private Finger(int maxDurationDoubleTap, int maxDownDoubleTap) {
+        this.maxDurationDoubleTap = maxDurationDoubleTap;
+        this.maxDownDoubleTap = maxDownDoubleTap;
+        this.positionDeltaInitial = new PointF();
+        this.positionDeltaLast = new PointF();
+        this.positionInitial = new PointF();
+        this.positionLast = new PointF();
+        this.positionCurrent = new PointF();
+    }
+
     public Finger(Finger f) {
 
         // copy values from another finger object
@@ -141,6 +208,56 @@ public class Finger {
                 f.positionDeltaLast, f.positionInitial, f.positionLast, f.positionCurrent);
     }
 
+    /**
+     * Copy the primitive values of the touch from another finger, used to keep the
+     * previous touch for the double tap without allocation. The point objects, the
+     * filters and the histories are not copied.
+     *
+     * @param f - finger whose values are copied
+     */
+    private void copyFrom(Finger f) {
+        stateCurrent = f.stateCurrent;
+        stateLast = f.stateLast;
+        maxDurationDoubleTap = f.maxDurationDoubleTap;
+        maxDownDoubleTap = f.maxDownDoubleTap;
+        distanceInitial = f.distanceInitial;
+        distanceLast = f.distanceLast;
+        durationInitial = f.durationInitial;
+        durationLast = f.durationLast;
+        timeInitial = f.timeInitial;
+        timeLast = f.timeLast;
+        timeCurrent = f.timeCurrent;
+        tracking = f.tracking;
+    }
+
+    /**
+     * Copy the properties from another finger - the thresholds, the jitter filter, the
+     * direction hysteresis, the early swipe and the force press values, so both fingers
+     * detect the same states. The state of the touch, the axes and the history are not copied.
+     *
+     * @param f - finger whose properties are copied
+     */
+    void copyProperties(Finger f) {
+        minDistanceSwipe = f.minDistanceSwipe;
+        maxDurationSwipe = f.maxDurationSwipe;
+        minDistanceMove = f.minDistanceMove;
+        maxDurationDoubleTap = f.maxDurationDoubleTap;
+        maxDownDoubleTap = f.maxDownDoubleTap;
+        slopeIntolerance = f.slopeIntolerance;
+        if (f.filterX == null) {
+            setFilterEnabled(false);
+        } else {
+            setFilter(f.filterX.getMinCutoff(), f.filterX.getBeta(), f.filterX.getDerivativeCutoff());
+        }
+        directionHysteresis = f.directionHysteresis;
+        earlySwipeEnabled = f.earlySwipeEnabled;
+        earlySwipeDistance = f.earlySwipeDistance;
+        earlySwipeVelocity = f.earlySwipeVelocity;
+        earlySwipeSlope = f.earlySwipeSlope;
+        forcePressThreshold = f.forcePressThreshold;
+        velocityWindow = f.velocityWindow;
+    }
+
     private PointF copy(PointF pointF) {
         return new PointF(pointF.x, pointF.y);
     }
@@ -149,6 +266,43 @@ public class Finger {
      * Reset current values to default ones
      */
     private void reset(){
+        resetValues();
+        positionDeltaInitial = new PointF();
+        positionDeltaLast = new PointF();
+        positionInitial = new PointF();
+        positionLast = new PointF();
+        positionCurrent = new PointF();
+    }
+
+    /**
+     * Clear the finger state, the last finger used for double tap, the filters, the
+     * history and the captured axes, keeping the properties. The point objects are
+     * reset in place, so the finger can be reused without allocation.
+     */
+    public void clear() {
+        resetValues();
+        lastFinger = null;
+        positionDeltaInitial.set(0, 0);
+        positionDeltaLast.set(0, 0);
+        positionInitial.set(0, 0);
+        positionLast.set(0, 0);
+        positionCurrent.set(0, 0);
+        if (filterX != null) {
+            filterX.reset();
+            filterY.reset();
+        }
+        if (history != null) {
+            history.clear();
+        }
+        if (velocityHistory != null) {
+            velocityHistory.clear();
+        }
+    }
+
+    /**
+     * Reset the primitive values to default ones
+     */
+    private void resetValues() {
 
         // init default
         stateCurrent = GestureDetector.NONE;
@@ -162,12 +316,10 @@ public class Finger {
         timeCurrent = 0;
         tracking = false;
         updateLast = true;
-
-        positionDeltaInitial = new PointF();
-        positionDeltaLast = new PointF();
-        positionInitial = new PointF();
-        positionLast = new PointF();
-        positionCurrent = new PointF();
+        swipeCommitted = false;
+        forcePressed = false;
+        axisSampleCount = 0;
+        axisSampleHead = 0;
     }
 
 
@@ -185,13 +337,63 @@ public class Finger {
             return false;
         }
 
-        if (this.timeInitial - lastFinger.timeInitial < maxDurationDoubleTap &&
-                this.durationInitial < maxDownDoubleTap &&
-                lastFinger.durationInitial < maxDownDoubleTap) {
-            return true;
+        return isDoubleTap(timeInitial, durationInitial, lastFinger.timeInitial, lastFinger.durationInitial,
+                maxDurationDoubleTap, maxDownDoubleTap);
+    }
+
+    /**
+     * Same as isDoubleTap(), with the values from the current and the last finger
+     * given as primitive values, so it can be used without finger objects.
+     *
+     * @return
+     */
+    static boolean isDoubleTap(long timeInitial, double durationInitial, long lastTimeInitial,
+                               double lastDurationInitial, int maxDurationDoubleTap, int maxDownDoubleTap) {
+        return timeInitial - lastTimeInitial < maxDurationDoubleTap &&
+                durationInitial < maxDownDoubleTap &&
+                lastDurationInitial < maxDownDoubleTap;
+    }
+
+    /**
+     * Determine the state when finger is lift up without double tap - swipe in the
+     * dominant direction, or UP if the minimum distance is not reached or the maximum
+     * time is passed.
+     *
+     * @param x                - x delta between the current and initial position
+     * @param y                - y delta between the current and initial position
+     * @param duration         - duration since the finger is pressed down (ms)
+     * @param minDistanceSwipe - min distance the finger must travel for swipe
+     * @param maxDurationSwipe - max time for swipe (ms)
+     * @param slopeIntolerance - slope intolerance for the direction
+     * @return the new state, or NONE if no direction is dominant
+     */
+    static int detectUpState(float x, float y, double duration, int minDistanceSwipe,
+                             int maxDurationSwipe, double slopeIntolerance) {
+
+        if ((Math.abs(x) < minDistanceSwipe && Math.abs(y) < minDistanceSwipe) ||
+                duration > maxDurationSwipe) {
+            // if minimum distance is not reached or the maximum time is passed, swipe is NOT detected
+            return GestureDetector.UP;
         }
 
-        return false;
+        // determine the swipe direction
+        return detectDirection(x, y, slopeIntolerance, GestureDetector.SWIPE_UP);
+    }
+
+    /**
+     * Determine the move state, when finger is moved.
+     *
+     * @param x                - x delta between the current and last position
+     * @param y                - y delta between the current and last position
+     * @param minDistanceMove  - min distance the finger must travel for move
+     * @param slopeIntolerance - slope intolerance for the direction
+     * @return the move state, or NONE if the min distance is not reached or no direction is dominant
+     */
+    static int detectMoveState(float x, float y, int minDistanceMove, double slopeIntolerance) {
+        if (Math.abs(x) < minDistanceMove && Math.abs(y) < minDistanceMove) {
+            return GestureDetector.NONE;
+        }
+        return detectDirection(x, y, slopeIntolerance, GestureDetector.MOVE_UP);
     }
 
     /**
@@ -202,14 +404,44 @@ public class Finger {
      * @param pointerIndex pointer index used, to get current finger position
      */
     public void detectState(MotionEvent event, int pointerIndex) {
-        stateLast = stateCurrent;
+        detectState(event.getAction() & MotionEvent.ACTION_MASK, event.getX(pointerIndex),
+                event.getY(pointerIndex), SystemClock.uptimeMillis());
+    }
 
-        int action = event.getAction() & MotionEvent.ACTION_MASK;
+    /**
+     * Same as detectState(MotionEvent, int), with the action, finger position and
+     * time given as primitive values.
+     *
+     * @param action - masked action like MotionEvent.ACTION_DOWN, ACTION_MOVE...
+     * @param x      - finger x coordinate
+     * @param y      - finger y coordinate
+     * @param time   - time of the event (ms)
+     */
+    public void detectState(int action, float x, float y, long time) {
+        detectState(action, x, y, time, 0, 0, 0);
+    }
+
+    /**
+     * Same as detectState(int, float, float, long), with values for the extra axes,
+     * that are saved in the columns enabled with setAxes().
+     *
+     * @param action      - masked action like MotionEvent.ACTION_DOWN, ACTION_MOVE...
+     * @param x           - finger x coordinate
+     * @param y           - finger y coordinate
+     * @param time        - time of the event (ms)
+     * @param pressure    - finger pressure
+     * @param touchMajor  - length of the major axis of the touch area
+     * @param orientation - orientation of the touch area (rad)
+     */
+    public void detectState(int action, float x, float y, long time,
+                            float pressure, float touchMajor, float orientation) {
+        stateLast = stateCurrent;
 
         if (action == MotionEvent.ACTION_DOWN || action == MotionEvent.ACTION_POINTER_DOWN) {
 
             // when finger is pressed down
-            setInitial(event, pointerIndex);
+            setInitial(x, y, time);
+            recordAxes(pressure, touchMajor, orientation);
             stateCurrent = GestureDetector.DOWN;
 
         } else if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_POINTER_UP) {
@@ -217,64 +449,149 @@ public class Finger {
             updateLast = true;
 
             // when finger is lift up
-            update(event, pointerIndex);
+            update(x, y, time);
+            recordAxes(pressure, touchMajor, orientation);
+
+            // swipe is already detected on move, so it is not detected again
+            if (swipeCommitted) {
+                stateCurrent = GestureDetector.UP;
+                return;
+            }
 
             if (isDoubleTap()) {
                 stateCurrent = GestureDetector.DOUBLE_TAP;
                 return;
             }
 
-            if ((Math.abs(positionDeltaInitial.x) < minDistanceSwipe &&
-                    Math.abs(positionDeltaInitial.y) < minDistanceSwipe) ||
-                    durationInitial > maxDurationSwipe) {
-                // if minimum distance is not reached or the maximum time is passed, swipe is NOT detected
-                stateCurrent = GestureDetector.UP;
-            } else {
-
-                // determine the swipe direction
-                float x = positionDeltaInitial.x;
-                float y = positionDeltaInitial.y;
-                if (-y > slopeIntolerance * Math.abs(x)) {
-                    stateCurrent = GestureDetector.SWIPE_UP;
-                } else if (y > slopeIntolerance * Math.abs(x)) {
-                    stateCurrent = GestureDetector.SWIPE_DOWN;
-                } else if (-x > slopeIntolerance * Math.abs(y)) {
-                    stateCurrent = GestureDetector.SWIPE_LEFT;
-                } else if (x > slopeIntolerance * Math.abs(y)) {
-                    stateCurrent = GestureDetector.SWIPE_RIGHT;
-                }
+            int state = detectUpState(positionDeltaInitial.x, positionDeltaInitial.y, durationInitial,
+                    minDistanceSwipe, maxDurationSwipe, slopeIntolerance);
+            if (state != GestureDetector.NONE) {
+                stateCurrent = state;
             }
 
         } else if (action == MotionEvent.ACTION_MOVE) {
 
             // when finger is moved
-            update(event, pointerIndex);
+            update(x, y, time);
+            recordAxes(pressure, touchMajor, orientation);
+
+            if (detectForcePress() || detectEarlySwipe()) {
+                return;
+            }
 
             // check if finger moved to minimum distance before, detecting the move state
-            if ((Math.abs(positionDeltaLast.x) < minDistanceMove &&
-                    Math.abs(positionDeltaLast.y) < minDistanceMove)) {
-                updateLast = false;
+            float deltaX = positionDeltaLast.x;
+            float deltaY = positionDeltaLast.y;
+            int direction = detectMoveState(deltaX, deltaY, minDistanceMove, slopeIntolerance);
+            updateLast = Math.abs(deltaX) >= minDistanceMove || Math.abs(deltaY) >= minDistanceMove;
+            if (!updateLast) {
                 return;
-            } else {
-                updateLast = true;
             }
 
-            // determine the direction
-            float x = positionDeltaLast.x;
-            float y = positionDeltaLast.y;
-            if (-y > slopeIntolerance * Math.abs(x)) {
-                stateCurrent = GestureDetector.MOVE_UP;
-            } else if (y > slopeIntolerance * Math.abs(x)) {
-                stateCurrent = GestureDetector.MOVE_DOWN;
-            } else if (-x > slopeIntolerance * Math.abs(y)) {
-                stateCurrent = GestureDetector.MOVE_LEFT;
-            } else if (x > slopeIntolerance * Math.abs(y)) {
-                stateCurrent = GestureDetector.MOVE_RIGHT;
+            // keep the current move direction, unless the new one is dominant by the hysteresis
+            if (directionHysteresis > 0 && isMoveState(stateCurrent) && direction != GestureDetector.NONE &&
+                    direction != stateCurrent &&
+                    detectDirection(deltaX, deltaY, slopeIntolerance * (1 + directionHysteresis), GestureDetector.MOVE_UP) != direction) {
+                direction = stateCurrent;
+            }
+
+            if (direction != GestureDetector.NONE) {
+                stateCurrent = direction;
             }
         }
     }
 
 
+    /**
+     * Save the extra axes values in the enabled columns, nothing is done if
+     * the axes are disabled.
+     */
+    private void recordAxes(float pressure, float touchMajor, float orientation) {
+
+        if (axes == 0) {
+            return;
+        }
+
+        this.pressure = pressure;
+        this.touchMajor = touchMajor;
+        this.orientation = orientation;
+
+        if (pressures != null) {
+            pressures[axisSampleHead] = pressure;
+        }
+        if (touchMajors != null) {
+            touchMajors[axisSampleHead] = touchMajor;
+        }
+        if (orientations != null) {
+            orientations[axisSampleHead] = orientation;
+        }
+
+        int capacity = getAxisCapacity();
+        axisSampleHead = (axisSampleHead + 1) % capacity;
+        axisSampleCount = Math.min(axisSampleCount + 1, capacity);
+    }
+
+    /**
+     * Detect force press right after -down, when the finger is pressed with pressure that
+     * already reaches the threshold. Called by the GestureDetector after the -down state is
+     * dispatched, so both states are reported, the same as when it is detected on -move.
+     *
+     * @return true if force press is detected, and the current state is changed
+     */
+    public boolean checkForcePress() {
+
+        int state = stateCurrent;
+        if (!detectForcePress()) {
+            return false;
+        }
+        stateLast = state;
+        return true;
+    }
+
+    /**
+     * Detect force press, when the pressure is captured and reaches the threshold.
+     * It is detected only once for each stroke.
+     *
+     * @return true if force press is detected
+     */
+    private boolean detectForcePress() {
+
+        if (pressures == null || forcePressed || pressure < forcePressThreshold) {
+            return false;
+        }
+
+        stateCurrent = GestureDetector.FORCE_PRESS;
+        forcePressed = true;
+        return true;
+    }
+
+    /**
+     * Detect swipe before the finger is lift up, when the distance, the average velocity
+     * and the dominance of the direction are enough for confidence that the finger will
+     * be lift up as swipe. Swipe is detected only once for each stroke.
+     *
+     * @return true if swipe is detected
+     */
+    private boolean detectEarlySwipe() {
+
+        if (!earlySwipeEnabled || swipeCommitted || durationInitial > maxDurationSwipe ||
+                distanceInitial < Math.max(earlySwipeDistance, minDistanceSwipe) ||
+                distanceInitial < earlySwipeVelocity * durationInitial) {
+            return false;
+        }
+
+        int direction = detectDirection(positionDeltaInitial.x, positionDeltaInitial.y,
+                slopeIntolerance * earlySwipeSlope, GestureDetector.SWIPE_UP);
+        if (direction == GestureDetector.NONE) {
+            return false;
+        }
+
+        stateCurrent = direction;
+        swipeCommitted = true;
+        updateLast = true;
+        return true;
+    }
+
     /**
      * Event that is called when finger is pressed down. Method saves
      * finger object values to -lastFinger object before resetting current
@@ -284,14 +601,49 @@ public class Finger {
      * @param pointerIndex - finger index whose state will be changed
      */
     public void setInitial(MotionEvent event, int pointerIndex) {
+        setInitial(event.getX(pointerIndex), event.getY(pointerIndex), SystemClock.uptimeMillis());
+    }
 
-        lastFinger = new Finger(this);  // save current finger object
+    /**
+     * Same as setInitial(MotionEvent, int), with the finger position and time
+     * given as primitive values.
+     *
+     * @param x    - finger x coordinate
+     * @param y    - finger y coordinate
+     * @param time - time when the finger is pressed down (ms)
+     */
+    public void setInitial(float x, float y, long time) {
+
+        // save current finger values, in the preallocated last finger object
+        if (lastFingerValues != null) {
+            lastFingerValues.copyFrom(this);
+            lastFinger = lastFingerValues;
+        }
         reset();                           // reset current
 
         // set initial time and position
-        positionInitial = new PointF(event.getX(pointerIndex), event.getY(pointerIndex));
-        timeInitial = SystemClock.uptimeMillis();
+        timeInitial = time;
+        if (filterX != null) {
+            filterX.reset();
+            filterY.reset();
+        }
+        positionInitial = new PointF(filterX(x, timeInitial), filterY(y, timeInitial));
+
+        // the first move is measured from the initial position, not from (0, 0)
+        positionLast = copy(positionInitial);
+        positionCurrent = copy(positionInitial);
+        timeLast = timeInitial;
+        timeCurrent = timeInitial;
         tracking = true; // since it is called from down event and tracking has began
+
+        if (history != null) {
+            history.clear();
+            history.add(timeInitial, positionInitial.x, positionInitial.y);
+        }
+        if (velocityHistory != null) {
+            velocityHistory.clear();
+            velocityHistory.add(timeInitial, positionInitial.x, positionInitial.y);
+        }
     }
 
     /**
@@ -302,13 +654,31 @@ public class Finger {
      * @param pointerIndex - finger index whose state will be changed
      */
     public void update(MotionEvent event, int pointerIndex) {
+        update(event.getX(pointerIndex), event.getY(pointerIndex), SystemClock.uptimeMillis());
+    }
+
+    /**
+     * Same as update(MotionEvent, int), with the finger position and time
+     * given as primitive values.
+     *
+     * @param x    - finger x coordinate
+     * @param y    - finger y coordinate
+     * @param time - time when the finger position is detected (ms)
+     */
+    public void update(float x, float y, long time) {
 
         if (updateLast) {
             positionLast = new PointF(positionCurrent.x, positionCurrent.y);
             timeLast = timeCurrent;
         }
-        positionCurrent = new PointF(event.getX(pointerIndex), event.getY(pointerIndex));
-        timeCurrent = SystemClock.uptimeMillis();
+        timeCurrent = time;
+        positionCurrent = new PointF(filterX(x, timeCurrent), filterY(y, timeCurrent));
+        if (history != null) {
+            history.add(timeCurrent, positionCurrent.x, positionCurrent.y);
+        }
+        if (velocityHistory != null) {
+            velocityHistory.add(timeCurrent, positionCurrent.x, positionCurrent.y);
+        }
 
         // delta and distance between -positionCurrent and -positionLast
         positionDeltaLast = new PointF
@@ -325,6 +695,111 @@ public class Finger {
         durationInitial = timeCurrent - timeInitial;
     }
 
+    /**
+     * Restore the initial values of a new stroke in place, used by FingerCodec on the
+     * receiver side. As in setInitial() the previous touch is kept for the double tap and
+     * the histories start from the initial position, but the point objects are reused and
+     * the position is not filtered again, since it is already filtered by the sender.
+     *
+     * @param x    - initial x coordinate
+     * @param y    - initial y coordinate
+     * @param time - time when the finger is pressed down (ms)
+     */
+    void restoreInitial(float x, float y, long time) {
+
+        if (lastFingerValues != null) {
+            lastFingerValues.copyFrom(this);
+            lastFinger = lastFingerValues;
+        }
+        resetValues();
+
+        timeInitial = time;
+        timeLast = time;
+        timeCurrent = time;
+        positionInitial.set(x, y);
+        positionLast.set(x, y);
+        positionCurrent.set(x, y);
+        positionDeltaInitial.set(0, 0);
+        positionDeltaLast.set(0, 0);
+        tracking = true;
+
+        if (history != null) {
+            history.clear();
+            history.add(time, x, y);
+        }
+        if (velocityHistory != null) {
+            velocityHistory.clear();
+            velocityHistory.add(time, x, y);
+        }
+    }
+
+    /**
+     * Restore the current position in place, used by FingerCodec on the receiver side. The
+     * values are updated as in update(), but the point objects are reused and the position
+     * is not filtered again, since it is already filtered by the sender.
+     *
+     * @param x    - current x coordinate
+     * @param y    - current y coordinate
+     * @param time - time when the finger position is detected (ms)
+     */
+    void restoreCurrent(float x, float y, long time) {
+
+        if (updateLast) {
+            positionLast.set(positionCurrent.x, positionCurrent.y);
+            timeLast = timeCurrent;
+        }
+        timeCurrent = time;
+        positionCurrent.set(x, y);
+        if (history != null) {
+            history.add(time, x, y);
+        }
+        if (velocityHistory != null) {
+            velocityHistory.add(time, x, y);
+        }
+
+        positionDeltaLast.set(x - positionLast.x, y - positionLast.y);
+        distanceLast = Math.sqrt(Math.pow(positionDeltaLast.x, 2) + Math.pow(positionDeltaLast.y, 2));
+        positionDeltaInitial.set(x - positionInitial.x, y - positionInitial.y);
+        distanceInitial = Math.sqrt(Math.pow(positionDeltaInitial.x, 2) + Math.pow(positionDeltaInitial.y, 2));
+        durationLast = timeCurrent - timeLast;
+        durationInitial = timeCurrent - timeInitial;
+    }
+
+    private float filterX(float x, long time) {
+        return filterX == null ? x : (float) filterX.filter(x, time);
+    }
+
+    private float filterY(float y, long time) {
+        return filterY == null ? y : (float) filterY.filter(y, time);
+    }
+
+    /**
+     * Determine the direction for given delta values, the direction states must be
+     * consecutive in order -up, -down, -left, -right as for the swipe and move states.
+     *
+     * @param x                - delta value for the x coordinate
+     * @param y                - delta value for the y coordinate
+     * @param slopeIntolerance - slope intolerance for the direction
+     * @param stateUp          - first direction state SWIPE_UP or MOVE_UP
+     * @return the direction state, or NONE if no direction is dominant
+     */
+    static int detectDirection(float x, float y, double slopeIntolerance, int stateUp) {
+        if (-y > slopeIntolerance * Math.abs(x)) {
+            return stateUp;
+        } else if (y > slopeIntolerance * Math.abs(x)) {
+            return stateUp + 1;
+        } else if (-x > slopeIntolerance * Math.abs(y)) {
+            return stateUp + 2;
+        } else if (x > slopeIntolerance * Math.abs(y)) {
+            return stateUp + 3;
+        }
+        return GestureDetector.NONE;
+    }
+
+    private static boolean isMoveState(int state) {
+        return state >= GestureDetector.MOVE_UP && state <= GestureDetector.MOVE_RIGHT;
+    }
+
     public String getCurrentStateAsString() {
         return getStateAsString(stateCurrent);
     }
@@ -366,6 +841,8 @@ public class Finger {
                 return "MOVE RIGHT";
             case GestureDetector.DOUBLE_TAP:
                 return "DOUBLE TAP";
+            case GestureDetector.FORCE_PRESS:
+                return "FORCE PRESS";
         }
 
         return "NONE";
@@ -483,6 +960,257 @@ public class Finger {
         this.maxDownDoubleTap = maxDownDoubleTap;
     }
 
+    /**
+     * Enable the One Euro jitter filter for the finger positions, that way noisy
+     * sensors produce fewer spurious move state changes.
+     *
+     * @param minCutoff        - min cutoff frequency, used when the finger is slow (Hz)
+     * @param beta             - how much the cutoff frequency increases with the speed
+     * @param derivativeCutoff - cutoff frequency used for the speed (Hz)
+     */
+    public void setFilter(double minCutoff, double beta, double derivativeCutoff) {
+        filterX = new OneEuroFilter(minCutoff, beta, derivativeCutoff);
+        filterY = new OneEuroFilter(minCutoff, beta, derivativeCutoff);
+    }
+
+    public void setFilterEnabled(boolean filterEnabled) {
+        if (!filterEnabled) {
+            filterX = null;
+            filterY = null;
+        } else if (filterX == null) {
+            setFilter(OneEuroFilter.MIN_CUTOFF, OneEuroFilter.BETA, OneEuroFilter.DERIVATIVE_CUTOFF);
+        }
+    }
+
+    public boolean isFilterEnabled() {
+        return filterX != null;
+    }
+
+    public double getDirectionHysteresis() {
+        return directionHysteresis;
+    }
+
+    /**
+     * Set directional hysteresis for the move states. When the finger is moving in one
+     * direction, new direction replaces it only if it is dominant by the slope intolerance
+     * multiplied by (1 + directionHysteresis). That way near-diagonal drags do not flip
+     * between two move states on each sample.
+     *
+     * @param directionHysteresis - hysteresis value, 0 to disable it
+     */
+    public void setDirectionHysteresis(double directionHysteresis) {
+        this.directionHysteresis = directionHysteresis;
+    }
+
+    public boolean isEarlySwipeEnabled() {
+        return earlySwipeEnabled;
+    }
+
+    /**
+     * Enable early swipe, that is detected on move as soon as the finger traveled
+     * -earlySwipeDistance, with average velocity at least -earlySwipeVelocity, and the
+     * direction is dominant by the slope intolerance multiplied by -earlySwipeSlope. The
+     * swipe is detected once, and on -up the state is UP instead of second swipe. If the
+     * conditions are not met while moving, the swipe is still detected on -up as before.
+     *
+     * @param earlySwipeEnabled - whether to detect swipe before -up
+     */
+    public void setEarlySwipeEnabled(boolean earlySwipeEnabled) {
+        this.earlySwipeEnabled = earlySwipeEnabled;
+    }
+
+    public int getEarlySwipeDistance() {
+        return earlySwipeDistance;
+    }
+
+    public void setEarlySwipeDistance(int earlySwipeDistance) {
+        this.earlySwipeDistance = earlySwipeDistance;
+    }
+
+    public double getEarlySwipeVelocity() {
+        return earlySwipeVelocity;
+    }
+
+    public void setEarlySwipeVelocity(double earlySwipeVelocity) {
+        this.earlySwipeVelocity = earlySwipeVelocity;
+    }
+
+    public double getEarlySwipeSlope() {
+        return earlySwipeSlope;
+    }
+
+    public void setEarlySwipeSlope(double earlySwipeSlope) {
+        this.earlySwipeSlope = earlySwipeSlope;
+    }
+
+    public boolean isSwipeCommitted() {
+        return swipeCommitted;
+    }
+
+    /**
+     * Enable capturing of extra axes, each axis is saved in its own preallocated column
+     * for the last -capacity samples since -ACTION_DOWN. When AXIS_PRESSURE is captured,
+     * FORCE_PRESS state is detected once the pressure reaches the threshold.
+     *
+     * @param axes     - bitmask with AXIS_PRESSURE, AXIS_TOUCH_MAJOR, AXIS_ORIENTATION, 0 to disable
+     * @param capacity - number of samples kept for each axis
+     */
+    public void setAxes(int axes, int capacity) {
+        if (axes != 0 && capacity < 1) {
+            throw new IllegalArgumentException("Axis capacity must be at least 1");
+        }
+        this.axes = axes;
+        pressures = (axes & AXIS_PRESSURE) != 0 ? new float[capacity] : null;
+        touchMajors = (axes & AXIS_TOUCH_MAJOR) != 0 ? new float[capacity] : null;
+        orientations = (axes & AXIS_ORIENTATION) != 0 ? new float[capacity] : null;
+        axisSampleCount = 0;
+        axisSampleHead = 0;
+    }
+
+    public int getAxes() {
+        return axes;
+    }
+
+    public int getAxisCapacity() {
+        if (pressures != null) {
+            return pressures.length;
+        } else if (touchMajors != null) {
+            return touchMajors.length;
+        } else if (orientations != null) {
+            return orientations.length;
+        }
+        return 0;
+    }
+
+    public int getAxisSampleCount() {
+        return axisSampleCount;
+    }
+
+    /**
+     * Get column index for a sample, where 0 is the oldest kept sample.
+     */
+    private int axisIndex(int sample) {
+        int capacity = getAxisCapacity();
+        return (axisSampleHead - axisSampleCount + sample + capacity) % capacity;
+    }
+
+    public float getPressure(int sample) {
+        return pressures[axisIndex(sample)];
+    }
+
+    public float getTouchMajor(int sample) {
+        return touchMajors[axisIndex(sample)];
+    }
+
+    public float getOrientation(int sample) {
+        return orientations[axisIndex(sample)];
+    }
+
+    public float getPressure() {
+        return pressure;
+    }
+
+    public float getTouchMajor() {
+        return touchMajor;
+    }
+
+    public float getOrientation() {
+        return orientation;
+    }
+
+    public float getForcePressThreshold() {
+        return forcePressThreshold;
+    }
+
+    public void setForcePressThreshold(float forcePressThreshold) {
+        this.forcePressThreshold = forcePressThreshold;
+    }
+
+    /**
+     * Enable keeping history of the timestamped finger positions since -down, that can
+     * be used to get the finger position at a given time. The history is cleared on each
+     * -down, and when the capacity is reached the oldest positions are overwritten.
+     *
+     * @param capacity - max number of kept positions, 0 to disable the history
+     */
+    public void setHistoryCapacity(int capacity) {
+        history = capacity > 0 ? new FingerHistory(capacity) : null;
+    }
+
+    /**
+     * Get the history with the timestamped finger positions, the positions are filtered
+     * if the filter is enabled.
+     *
+     * @return the history, or null if it is disabled
+     */
+    public FingerHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Get the finger velocity for the x coordinate, estimated with least squares fit over
+     * the positions in the velocity window before the latest position. When the finger is
+     * lift up at the position of the last move the velocity is kept, and when it rests
+     * longer than the window before it is lift up the velocity is 0.
+     *
+     * @return velocity for the x coordinate (px/ms)
+     */
+    public float getVelocityX() {
+        return velocity(true);
+    }
+
+    /**
+     * Same as getVelocityX(), for the y coordinate.
+     *
+     * @return velocity for the y coordinate (px/ms)
+     */
+    public float getVelocityY() {
+        return velocity(false);
+    }
+
+    private float velocity(boolean horizontal) {
+
+        if (velocityHistory == null) {
+            return 0;
+        }
+        int count = velocityHistory.getSampleCount();
+        if (count < 2) {
+            return 0;
+        }
+        long timeNewest = velocityHistory.getNewestTime();
+        int first = velocityHistory.search(timeNewest - velocityWindow);
+        int n = count - first;
+        if (n < 2) {
+            return 0;
+        }
+
+        // times are relative to the newest one, to keep the precision
+        double meanTime = 0, meanPosition = 0;
+        for (int i = first; i < count; i++) {
+            meanTime += velocityHistory.getTime(i) - timeNewest;
+            meanPosition += horizontal ? velocityHistory.getX(i) : velocityHistory.getY(i);
+        }
+        meanTime /= n;
+        meanPosition /= n;
+
+        double covariance = 0, variance = 0;
+        for (int i = first; i < count; i++) {
+            double t = velocityHistory.getTime(i) - timeNewest - meanTime;
+            double position = horizontal ? velocityHistory.getX(i) : velocityHistory.getY(i);
+            covariance += t * (position - meanPosition);
+            variance += t * t;
+        }
+        return variance == 0 ? 0 : (float) (covariance / variance);
+    }
+
+    public int getVelocityWindow() {
+        return velocityWindow;
+    }
+
+    public void setVelocityWindow(int velocityWindow) {
+        this.velocityWindow = velocityWindow;
+    }
+
     public boolean isTracking() {
         return tracking;
     }
@@ -0,0 +1,277 @@
+package com.slaviboy.gestures;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Class that writes the state of all fingers into a ByteBuffer and restores it into
+ * receiver-side finger objects, used to stream finger states to other devices. Each frame
+ * holds only the fingers that changed since the previous frame, and each value is written
+ * as varint delta against the value from the previous frame. Positions are quantized to
+ * 1/POSITION_SCALE px. The sender and the receiver each keep their own codec object,
+ * and the values from the previous frame are kept in primitive arrays, so encoding and
+ * decoding do not allocate.
+ * <p>
+ * Frame format: flags byte (FLAG_KEY_FRAME), varint number of fingers, varint bitmask with
+ * the changed fingers, and for each changed finger a byte with the FIELD_* bits followed by
+ * the changed fields - state, position delta x and y, time delta, and the initial position
+ * delta x and y with the initial time delta. The initial values are written whenever the
+ * initial time changes, so the receiver detects each new stroke, even when the finger is
+ * lift up and pressed down again between two frames.
+ * <p>
+ * Key frame is written as first frame, and after requestKeyFrame() is called, it holds all
+ * fingers with deltas against zero, so the receiver can start or resync from it.
+ */
+public class FingerCodec {
+
+    public static final int MAX_FINGERS = 64;          // max number of fingers, that fit in the changed mask
+    public static final int POSITION_SCALE = 8;        // positions are written in 1/POSITION_SCALE px
+
+    public static final int FLAG_KEY_FRAME = 1;        // frame flag, set when the deltas are against zero
+
+    // bits set for each changed finger, showing which fields follow
+    static final int FIELD_TRACKING = 1;               // value of the tracking property
+    static final int FIELD_STATE = 2;                  // state is written
+    static final int FIELD_POSITION = 4;               // position delta is written
+    static final int FIELD_TIME = 8;                   // time delta is written
+    static final int FIELD_INITIAL = 16;               // initial position and initial time deltas are written
+
+    // values from the previous frame
+    private int[] states;                              // finger current state
+    private int[] positionsX;                          // quantized x coordinate
+    private int[] positionsY;                          // quantized y coordinate
+    private long[] times;                              // finger current time (ms)
+    private boolean[] trackings;                       // if finger is tracked
+    private int[] initialsX;                           // quantized initial x coordinate
+    private int[] initialsY;                           // quantized initial y coordinate
+    private long[] timesInitial;                       // finger initial time, changed on each new stroke (ms)
+
+    private boolean keyFrame;                          // if the next encoded frame is a key frame
+
+    public FingerCodec(int numberOfFingers) {
+
+        if (numberOfFingers > MAX_FINGERS) {
+            throw new IllegalArgumentException("Max number of fingers is " + MAX_FINGERS);
+        }
+
+        states = new int[numberOfFingers];
+        positionsX = new int[numberOfFingers];
+        positionsY = new int[numberOfFingers];
+        times = new long[numberOfFingers];
+        trackings = new boolean[numberOfFingers];
+        initialsX = new int[numberOfFingers];
+        initialsY = new int[numberOfFingers];
+        timesInitial = new long[numberOfFingers];
+        requestKeyFrame();
+    }
+
+    /**
+     * Make the next encoded frame a key frame, for example when a new receiver is connected.
+     */
+    public void requestKeyFrame() {
+        keyFrame = true;
+    }
+
+    private void clearPrevious() {
+        Arrays.fill(states, 0);
+        Arrays.fill(positionsX, 0);
+        Arrays.fill(positionsY, 0);
+        Arrays.fill(times, 0);
+        Arrays.fill(trackings, false);
+        Arrays.fill(initialsX, 0);
+        Arrays.fill(initialsY, 0);
+        Arrays.fill(timesInitial, 0);
+    }
+
+    /**
+     * Write the changed fingers into the buffer, as deltas against the previous frame.
+     *
+     * @param fingers - finger objects, as passed to the gesture listener
+     * @param out     - buffer where the frame will be written
+     */
+    public void encode(Finger[] fingers, ByteBuffer out) {
+
+        int count = Math.min(fingers.length, states.length);
+        boolean key = keyFrame;
+        if (key) {
+            clearPrevious();
+            keyFrame = false;
+        }
+
+        // find the changed fingers
+        long changed = 0;
+        for (int i = 0; i < count; i++) {
+            int fields = fieldsOf(fingers[i], i);
+            if (key || (fields & ~FIELD_TRACKING) != 0 || fingers[i].isTracking() != trackings[i]) {
+                changed |= 1L << i;
+            }
+        }
+
+        out.put((byte) (key ? FLAG_KEY_FRAME : 0));
+        Varint.writeUnsigned(out, count);
+        Varint.writeUnsigned(out, changed);
+
+        for (int i = 0; i < count; i++) {
+            if ((changed & (1L << i)) == 0) {
+                continue;
+            }
+
+            Finger finger = fingers[i];
+            int fields = fieldsOf(finger, i);
+            out.put((byte) fields);
+
+            if ((fields & FIELD_STATE) != 0) {
+                Varint.writeUnsigned(out, finger.getStateCurrent());
+                states[i] = finger.getStateCurrent();
+            }
+            if ((fields & FIELD_POSITION) != 0) {
+                int x = quantize(finger.getPositionCurrent().x);
+                int y = quantize(finger.getPositionCurrent().y);
+                Varint.writeSigned(out, x - positionsX[i]);
+                Varint.writeSigned(out, y - positionsY[i]);
+                positionsX[i] = x;
+                positionsY[i] = y;
+            }
+            if ((fields & FIELD_TIME) != 0) {
+                long time = finger.getTimeCurrent();
+                Varint.writeSigned(out, time - times[i]);
+                times[i] = time;
+            }
+            if ((fields & FIELD_INITIAL) != 0) {
+                int x = quantize(finger.getPositionInitial().x);
+                int y = quantize(finger.getPositionInitial().y);
+                Varint.writeSigned(out, x - initialsX[i]);
+                Varint.writeSigned(out, y - initialsY[i]);
+                Varint.writeSigned(out, finger.getTimeInitial() - timesInitial[i]);
+                initialsX[i] = x;
+                initialsY[i] = y;
+                timesInitial[i] = finger.getTimeInitial();
+            }
+            trackings[i] = finger.isTracking();
+        }
+    }
+
+    /**
+     * Get the FIELD_* bits for the values that differ from the previous frame.
+     */
+    private int fieldsOf(Finger finger, int i) {
+
+        int fields = finger.isTracking() ? FIELD_TRACKING : 0;
+        if (finger.getStateCurrent() != states[i]) {
+            fields |= FIELD_STATE;
+        }
+        if (quantize(finger.getPositionCurrent().x) != positionsX[i] ||
+                quantize(finger.getPositionCurrent().y) != positionsY[i]) {
+            fields |= FIELD_POSITION;
+        }
+        if (finger.getTimeCurrent() != times[i]) {
+            fields |= FIELD_TIME;
+        }
+        if (finger.getTimeInitial() != timesInitial[i]) {
+            fields |= FIELD_INITIAL;
+        }
+        return fields;
+    }
+
+    /**
+     * Read frame from the buffer and restore the changed fingers. The number of fingers
+     * restored is the smaller of the number written and the length of the array.
+     *
+     * @param in      - buffer from where the frame will be read
+     * @param fingers - receiver-side finger objects
+     */
+    public void decode(ByteBuffer in, Finger[] fingers) {
+
+        int flags = in.get();
+        if ((flags & FLAG_KEY_FRAME) != 0) {
+            clearPrevious();
+        }
+
+        int count = (int) Varint.readUnsigned(in);
+        long changed = Varint.readUnsigned(in);
+        if (count > states.length) {
+            throw new IllegalArgumentException("Frame has " + count + " fingers, codec supports " + states.length);
+        }
+
+        for (int i = 0; i < count; i++) {
+            if ((changed & (1L << i)) == 0) {
+                continue;
+            }
+
+            int fields = in.get();
+            if ((fields & FIELD_STATE) != 0) {
+                states[i] = (int) Varint.readUnsigned(in);
+            }
+            if ((fields & FIELD_POSITION) != 0) {
+                positionsX[i] += (int) Varint.readSigned(in);
+                positionsY[i] += (int) Varint.readSigned(in);
+            }
+            if ((fields & FIELD_TIME) != 0) {
+                times[i] += Varint.readSigned(in);
+            }
+            boolean started = (fields & FIELD_INITIAL) != 0;
+            if (started) {
+                initialsX[i] += (int) Varint.readSigned(in);
+                initialsY[i] += (int) Varint.readSigned(in);
+                timesInitial[i] += Varint.readSigned(in);
+            }
+            trackings[i] = (fields & FIELD_TRACKING) != 0;
+
+            if (i < fingers.length) {
+                restore(fingers[i], i, started, (fields & (FIELD_POSITION | FIELD_TIME)) != 0);
+            }
+        }
+    }
+
+    /**
+     * Restore the values from the previous frame arrays into a finger object. For a new
+     * stroke the finger is first pressed down at the initial position, and then moved to
+     * the current position, if the finger moved since -down. The values are set in place,
+     * so decoding does not allocate.
+     */
+    private void restore(Finger finger, int i, boolean started, boolean moved) {
+
+        float x = (float) positionsX[i] / POSITION_SCALE;
+        float y = (float) positionsY[i] / POSITION_SCALE;
+        if (started) {
+            finger.restoreInitial((float) initialsX[i] / POSITION_SCALE,
+                    (float) initialsY[i] / POSITION_SCALE, timesInitial[i]);
+            moved = positionsX[i] != initialsX[i] || positionsY[i] != initialsY[i] ||
+                    times[i] != timesInitial[i];
+        }
+        if (moved) {
+            finger.restoreCurrent(x, y, times[i]);
+        }
+        finger.setTracking(trackings[i]);
+
+        if (finger.getStateCurrent() != states[i]) {
+            finger.setStateLast(finger.getStateCurrent());
+            finger.setStateCurrent(states[i]);
+        }
+    }
+
+    private static int quantize(float value) {
+        return Math.round(value * POSITION_SCALE);
+    }
+}
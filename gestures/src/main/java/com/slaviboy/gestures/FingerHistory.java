@@ -0,0 +1,225 @@
+package com.slaviboy.gestures;
+
+import android.graphics.PointF;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Class that keeps bounded history of timestamped finger positions, in preallocated
+ * primitive ring buffers. When the capacity is reached the oldest samples are overwritten,
+ * so recording never allocates. The samples are sorted by time, so the position at a given
+ * time is found with binary search in O(log n) and linearly interpolated between the two
+ * nearest samples. Useful for lag compensation or syncing with audio, where the question is
+ * "where was the finger at time t".
+ */
+public class FingerHistory {
+
+    // public default constants
+    public static final int CAPACITY = 128;
+
+    private final long[] times;         // time for each sample (ms)
+    private final float[] positionsX;   // x coordinate for each sample
+    private final float[] positionsY;   // y coordinate for each sample
+    private final int capacity;         // max number of kept samples
+    private int count;                  // number of kept samples
+    private int head;                   // index in the arrays, where the next sample will be saved
+    private final PointF position;      // point reused for the path end points
+
+    public FingerHistory() {
+        this(CAPACITY);
+    }
+
+    public FingerHistory(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.capacity = capacity;
+        times = new long[capacity];
+        positionsX = new float[capacity];
+        positionsY = new float[capacity];
+        position = new PointF();
+    }
+
+    /**
+     * Remove all samples, the arrays are kept.
+     */
+    public void clear() {
+        count = 0;
+        head = 0;
+    }
+
+    /**
+     * Add sample at the end of the history. Samples must be added in time order, so
+     * sample older than the newest one gets the time of the newest one.
+     *
+     * @param time - time of the sample (ms)
+     * @param x    - finger x coordinate
+     * @param y    - finger y coordinate
+     */
+    public void add(long time, float x, float y) {
+
+        if (count > 0 && time < getNewestTime()) {
+            time = getNewestTime();
+        }
+
+        times[head] = time;
+        positionsX[head] = x;
+        positionsY[head] = y;
+        head = (head + 1) % capacity;
+        if (count < capacity) {
+            count++;
+        }
+    }
+
+    /**
+     * Get array index for a sample, where 0 is the oldest kept sample.
+     */
+    private int arrayIndex(int sample) {
+        return (head - count + sample + capacity) % capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSampleCount() {
+        return count;
+    }
+
+    public long getTime(int sample) {
+        return times[arrayIndex(sample)];
+    }
+
+    public float getX(int sample) {
+        return positionsX[arrayIndex(sample)];
+    }
+
+    public float getY(int sample) {
+        return positionsY[arrayIndex(sample)];
+    }
+
+    public long getOldestTime() {
+        return getTime(0);
+    }
+
+    public long getNewestTime() {
+        return getTime(count - 1);
+    }
+
+    /**
+     * Find the first sample, whose time is bigger or equal to the given time, using
+     * binary search.
+     *
+     * @param time - time to search for (ms)
+     * @return sample index, or the sample count if all samples are older
+     */
+    public int search(long time) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getTime(middle) < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get the finger position at the given time, linearly interpolated between the two
+     * nearest samples. Times outside the history are clamped to the oldest or the newest
+     * sample, positions are never extrapolated.
+     *
+     * @param time     - time for which the position is needed (ms)
+     * @param position - point where the position is saved
+     * @return false if there are no samples, and the position is not set
+     */
+    public boolean getPosition(long time, PointF position) {
+
+        if (count == 0) {
+            return false;
+        }
+
+        int sample = search(time);
+        if (sample == 0) {
+            position.set(getX(0), getY(0));
+        } else if (sample == count) {
+            position.set(getX(count - 1), getY(count - 1));
+        } else {
+            interpolate(sample - 1, sample, time, position);
+        }
+        return true;
+    }
+
+    private void interpolate(int sample0, int sample1, long time, PointF position) {
+        long time0 = getTime(sample0);
+        long time1 = getTime(sample1);
+        float t = time1 == time0 ? 1 : (float) (time - time0) / (time1 - time0);
+        float x0 = getX(sample0);
+        float y0 = getY(sample0);
+        position.set(x0 + (getX(sample1) - x0) * t, y0 + (getY(sample1) - y0) * t);
+    }
+
+    /**
+     * Get the path of the finger between two times. The path starts and ends with the
+     * interpolated positions at -timeFrom and -timeTo, and between them are all samples
+     * made in that time range. Points that do not fit in the arrays are skipped, except
+     * the end point, that is always saved as the last point.
+     *
+     * @param timeFrom   - start time of the path (ms)
+     * @param timeTo     - end time of the path (ms)
+     * @param positionsX - array where the x coordinates are saved
+     * @param positionsY - array where the y coordinates are saved
+     * @return number of saved points
+     */
+    public int getPath(long timeFrom, long timeTo, float[] positionsX, float[] positionsY) {
+
+        int max = Math.min(positionsX.length, positionsY.length);
+        if (count == 0 || max == 0 || timeTo < timeFrom) {
+            return 0;
+        }
+
+        getPosition(timeFrom, position);
+        positionsX[0] = position.x;
+        positionsY[0] = position.y;
+        int points = 1;
+
+        int end = search(timeTo);
+        for (int sample = search(timeFrom); sample < end && points < max - 1; sample++) {
+            if (getTime(sample) > timeFrom) {
+                positionsX[points] = getX(sample);
+                positionsY[points] = getY(sample);
+                points++;
+            }
+        }
+
+        if (max > 1 && timeTo > timeFrom) {
+            getPosition(timeTo, position);
+            positionsX[points] = position.x;
+            positionsY[points] = position.y;
+            points++;
+        }
+        return points;
+    }
+}
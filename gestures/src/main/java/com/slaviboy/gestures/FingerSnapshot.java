@@ -0,0 +1,97 @@
+package com.slaviboy.gestures;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Class that holds a consistent copy of the finger values, read from FingerSnapshotBuffer.
+ * Each reader thread creates its own snapshot once and reuses it, values are kept in
+ * primitive arrays indexed by finger index, so reading does not allocate.
+ */
+public class FingerSnapshot {
+
+    final float[] positionX;              // current finger x coordinate, or the initial one before the first move
+    final float[] positionY;              // current finger y coordinate, or the initial one before the first move
+    final float[] positionInitialX;       // initial finger x coordinate from the -down event
+    final float[] positionInitialY;       // initial finger y coordinate from the -down event
+    final long[] timeCurrent;             // time of the current position (ms)
+    final long[] timeInitial;             // time of the -down event (ms)
+    final int[] stateCurrent;             // current finger state
+    final int[] stateLast;                // previous finger state
+    final boolean[] tracking;             // if finger is tracked
+    long sequence;                        // publish sequence of the copied values
+
+    public FingerSnapshot(int numberOfFingers) {
+        positionX = new float[numberOfFingers];
+        positionY = new float[numberOfFingers];
+        positionInitialX = new float[numberOfFingers];
+        positionInitialY = new float[numberOfFingers];
+        timeCurrent = new long[numberOfFingers];
+        timeInitial = new long[numberOfFingers];
+        stateCurrent = new int[numberOfFingers];
+        stateLast = new int[numberOfFingers];
+        tracking = new boolean[numberOfFingers];
+    }
+
+    public int getNumberOfFingers() {
+        return positionX.length;
+    }
+
+    public float getPositionX(int fingerIndex) {
+        return positionX[fingerIndex];
+    }
+
+    public float getPositionY(int fingerIndex) {
+        return positionY[fingerIndex];
+    }
+
+    public float getPositionInitialX(int fingerIndex) {
+        return positionInitialX[fingerIndex];
+    }
+
+    public float getPositionInitialY(int fingerIndex) {
+        return positionInitialY[fingerIndex];
+    }
+
+    public long getTimeCurrent(int fingerIndex) {
+        return timeCurrent[fingerIndex];
+    }
+
+    public long getTimeInitial(int fingerIndex) {
+        return timeInitial[fingerIndex];
+    }
+
+    public int getStateCurrent(int fingerIndex) {
+        return stateCurrent[fingerIndex];
+    }
+
+    public int getStateLast(int fingerIndex) {
+        return stateLast[fingerIndex];
+    }
+
+    public boolean isTracking(int fingerIndex) {
+        return tracking[fingerIndex];
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,152 @@
+package com.slaviboy.gestures;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Class that publishes the state of all fingers from the UI thread, so other threads like
+ * the render thread or the game loop can read it without locking. It is a sequence lock -
+ * the writer makes the sequence odd, writes the values and makes the sequence even again.
+ * The reader copies the values into a FingerSnapshot and checks that the sequence is even
+ * and unchanged, otherwise the copy is torn and it is made again. All values are packed in
+ * an AtomicLongArray, so each access is volatile and the reads are ordered with the sequence
+ * checks. The writer never blocks or allocates.
+ * <p>
+ * Values for each finger: position x and y, initial position x and y, current time,
+ * initial time, current state, last state and tracking.
+ */
+public class FingerSnapshotBuffer {
+
+    static final int SLOTS = 4;                   // number of long values for each finger
+
+    private final int numberOfFingers;            // number of published fingers
+    private final AtomicLongArray values;         // packed finger values [finger * SLOTS + slot]
+    private final AtomicLong sequence;            // odd while the writer is publishing, incremented twice per publish
+
+    public FingerSnapshotBuffer(int numberOfFingers) {
+        this.numberOfFingers = numberOfFingers;
+        values = new AtomicLongArray(numberOfFingers * SLOTS);
+        sequence = new AtomicLong();
+    }
+
+    /**
+     * Publish the current state of the fingers, must be called only from one thread.
+     *
+     * @param fingers - finger objects, as passed to the gesture listener
+     */
+    public void publish(Finger[] fingers) {
+
+        long seq = sequence.get();
+        sequence.set(seq + 1);
+
+        int count = Math.min(fingers.length, numberOfFingers);
+        for (int i = 0; i < count; i++) {
+            Finger finger = fingers[i];
+            int offset = i * SLOTS;
+            values.set(offset, pack(finger.getPositionCurrent().x, finger.getPositionCurrent().y));
+            values.set(offset + 1, pack(finger.getPositionInitial().x, finger.getPositionInitial().y));
+            values.set(offset + 2, finger.getTimeCurrent());
+            values.set(offset + 3, finger.getTimeInitial() << 24 | (finger.isTracking() ? 1L << 16 : 0) |
+                    (finger.getStateLast() & 0xFF) << 8 | (finger.getStateCurrent() & 0xFF));
+        }
+
+        sequence.set(seq + 2);
+    }
+
+    /**
+     * Make one attempt to copy the published values into the snapshot, it never waits
+     * for the writer.
+     *
+     * @param snapshot - snapshot where the values will be copied
+     * @return true if the copy is consistent, false if the writer was publishing meanwhile
+     */
+    public boolean tryRead(FingerSnapshot snapshot) {
+
+        long before = sequence.get();
+        if ((before & 1) != 0) {
+            return false;
+        }
+
+        int count = Math.min(snapshot.getNumberOfFingers(), numberOfFingers);
+        for (int i = 0; i < count; i++) {
+            int offset = i * SLOTS;
+            long position = values.get(offset);
+            long positionInitial = values.get(offset + 1);
+            long info = values.get(offset + 3);
+            snapshot.positionX[i] = unpackX(position);
+            snapshot.positionY[i] = unpackY(position);
+            snapshot.positionInitialX[i] = unpackX(positionInitial);
+            snapshot.positionInitialY[i] = unpackY(positionInitial);
+            snapshot.timeCurrent[i] = values.get(offset + 2);
+            snapshot.timeInitial[i] = info >>> 24;
+            snapshot.tracking[i] = (info & 1L << 16) != 0;
+            snapshot.stateLast[i] = (int) (info >>> 8 & 0xFF);
+            snapshot.stateCurrent[i] = (int) (info & 0xFF);
+        }
+
+        if (sequence.get() != before) {
+            return false;
+        }
+        snapshot.sequence = before >>> 1;
+        return true;
+    }
+
+    /**
+     * Copy the published values into the snapshot, retrying while the copy is torn.
+     * The writer publishes only a few values, so the retries are rare and short.
+     *
+     * @param snapshot - snapshot where the values will be copied
+     */
+    public void read(FingerSnapshot snapshot) {
+        while (!tryRead(snapshot)) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Get the number of publishes made so far, it can be compared with the snapshot
+     * sequence, to check if there are new values without reading them.
+     *
+     * @return
+     */
+    public long getSequence() {
+        return sequence.get() >>> 1;
+    }
+
+    public int getNumberOfFingers() {
+        return numberOfFingers;
+    }
+
+    private static long pack(float x, float y) {
+        return (long) Float.floatToRawIntBits(x) << 32 | (Float.floatToRawIntBits(y) & 0xFFFFFFFFL);
+    }
+
+    private static float unpackX(long value) {
+        return Float.intBitsToFloat((int) (value >>> 32));
+    }
+
+    private static float unpackY(long value) {
+        return Float.intBitsToFloat((int) value);
+    }
+}
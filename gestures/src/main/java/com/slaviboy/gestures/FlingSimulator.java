@@ -0,0 +1,340 @@
+package com.slaviboy.gestures;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Class that simulates kinetic scrolling (fling) after the finger is lift up. The velocity
+ * decays exponentially v(t) = v0 * e^(-t/timeConstant), so the position is known in closed
+ * form x(t) = x0 + v0 * timeConstant * (1 - e^(-t/timeConstant)), and it is computed for any
+ * time in O(1) without integrating frame by frame. That way the animation does not depend on
+ * the frame rate.
+ * <p>
+ * Optional snap interval moves the rest position to the nearest multiple of the interval, by
+ * adjusting the start velocity. When the rest position is outside the bounds, the fling
+ * either stops exactly at the bound, or if overscroll is enabled, passes the bound and
+ * returns with a critically damped spring x(s) = bound + (a + b * s) * e^(-w * s), that is
+ * also in closed form. All values are kept in primitive arrays for the two axes, so
+ * starting and evaluating the fling does not allocate.
+ */
+public class FlingSimulator {
+
+    // public default constants
+    public static final double TIME_CONSTANT = 325;      // time for the velocity to decay by e (ms)
+    public static final double SPRING_FREQUENCY = 0.02;  // frequency of the overscroll spring (rad/ms)
+    public static final float MAX_VELOCITY = 8;          // max start velocity (px/ms)
+    public static final float REST_DISTANCE = 0.5f;      // distance from the rest position, when fling is finished (px)
+
+    private static final int X = 0;
+    private static final int Y = 1;
+
+    private double timeConstant;             // time for the velocity to decay by e (ms)
+    private double springFrequency;          // frequency of the overscroll spring (rad/ms)
+    private float maxVelocity;               // max start velocity (px/ms)
+    private boolean overscrollEnabled;       // if fling can pass the bounds and return with a spring
+
+    // settings for each axis
+    private float[] boundMin;                // min position
+    private float[] boundMax;                // max position
+    private float[] snapInterval;            // interval for the rest position, 0 - disabled
+
+    // values for each axis, computed when the fling is started
+    private double[] positionStart;          // start position (px)
+    private double[] velocityStart;          // start velocity, after the snap adjustment (px/ms)
+    private double[] springTime;             // time when the spring phase starts, infinity if there is none (ms)
+    private double[] springBound;            // bound to which the spring returns
+    private double[] springOffset;           // offset from the bound, when the spring phase starts (px)
+    private double[] springVelocity;         // velocity when the spring phase starts (px/ms)
+    private double[] durations;              // time until the axis is at rest (ms)
+
+    private long timeStart;                  // time when the fling is started (ms)
+    private boolean started;                 // if fling is started
+
+    public FlingSimulator() {
+        this(TIME_CONSTANT, SPRING_FREQUENCY, MAX_VELOCITY, true);
+    }
+
+    public FlingSimulator(double timeConstant, double springFrequency, float maxVelocity,
+                          boolean overscrollEnabled) {
+
+        this.timeConstant = timeConstant;
+        this.springFrequency = springFrequency;
+        this.maxVelocity = maxVelocity;
+        this.overscrollEnabled = overscrollEnabled;
+
+        boundMin = new float[]{Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        boundMax = new float[]{Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY};
+        snapInterval = new float[2];
+        positionStart = new double[2];
+        velocityStart = new double[2];
+        springTime = new double[2];
+        springBound = new double[2];
+        springOffset = new double[2];
+        springVelocity = new double[2];
+        durations = new double[2];
+    }
+
+    /**
+     * Start fling using the release values of a finger, the velocity is estimated over
+     * the finger velocity window, see Finger.getVelocityX().
+     *
+     * @param finger - finger that is lift up
+     * @param time   - time when the fling starts (ms)
+     */
+    public void start(Finger finger, long time) {
+        start(finger.getPositionCurrent().x, finger.getPositionCurrent().y,
+                finger.getVelocityX(), finger.getVelocityY(), time);
+    }
+
+    /**
+     * Start fling from given position and velocity.
+     *
+     * @param x    - start x coordinate (px)
+     * @param y    - start y coordinate (px)
+     * @param vx   - start velocity for the x coordinate (px/ms)
+     * @param vy   - start velocity for the y coordinate (px/ms)
+     * @param time - time when the fling starts (ms)
+     */
+    public void start(float x, float y, float vx, float vy, long time) {
+        timeStart = time;
+        started = true;
+        startAxis(X, x, vx);
+        startAxis(Y, y, vy);
+    }
+
+    private void startAxis(int axis, double position, double velocity) {
+
+        velocity = Math.max(-maxVelocity, Math.min(maxVelocity, velocity));
+        positionStart[axis] = position;
+        springTime[axis] = Double.POSITIVE_INFINITY;
+
+        // fling started outside the bounds, only the spring returns it back
+        if (position < boundMin[axis] || position > boundMax[axis]) {
+            double bound = position < boundMin[axis] ? boundMin[axis] : boundMax[axis];
+            velocityStart[axis] = 0;
+            startSpring(axis, 0, bound, position - bound, overscrollEnabled ? velocity : 0);
+            return;
+        }
+
+        // snap the rest position to the nearest interval, by changing the velocity
+        double rest = position + velocity * timeConstant;
+        if (snapInterval[axis] > 0) {
+            double snapped = Math.round(rest / snapInterval[axis]) * snapInterval[axis];
+            if (snapped >= boundMin[axis] && snapped <= boundMax[axis]) {
+                rest = snapped;
+            }
+        }
+
+        if (rest < boundMin[axis] || rest > boundMax[axis]) {
+            double bound = rest < boundMin[axis] ? boundMin[axis] : boundMax[axis];
+            if (overscrollEnabled) {
+
+                // time and velocity when the bound is reached, the spring starts from there
+                velocityStart[axis] = velocity;
+                double t = -timeConstant * Math.log(1 - (bound - position) / (velocity * timeConstant));
+                double v = velocity * Math.exp(-t / timeConstant);
+                startSpring(axis, t, bound, 0, v);
+                return;
+            }
+
+            // stop exactly at the bound
+            rest = bound;
+        }
+
+        velocityStart[axis] = (rest - position) / timeConstant;
+        durations[axis] = decayDuration(Math.abs(rest - position));
+    }
+
+    private void startSpring(int axis, double time, double bound, double offset, double velocity) {
+        springTime[axis] = time;
+        springBound[axis] = bound;
+        springOffset[axis] = offset;
+        springVelocity[axis] = velocity;
+        durations[axis] = time + springDuration(offset, velocity + springFrequency * offset);
+    }
+
+    /**
+     * Time after which the remaining distance is below REST_DISTANCE.
+     */
+    private double decayDuration(double distance) {
+        return distance <= REST_DISTANCE ? 0 : timeConstant * Math.log(distance / REST_DISTANCE);
+    }
+
+    /**
+     * Time after which the spring offset (a + b * s) * e^(-w * s) stays below REST_DISTANCE.
+     * The bound (|a| + |b| * s) * e^(-w * s) decreases after its max at 1/w - |a|/|b|, so it
+     * is stepped from there, only once when the fling is started.
+     */
+    private double springDuration(double a, double b) {
+
+        a = Math.abs(a);
+        b = Math.abs(b);
+        double step = 1 / springFrequency;
+        double s = b > 0 ? Math.max(0, step - a / b) : 0;
+        for (int i = 0; i < 64 && (a + b * s) * Math.exp(-springFrequency * s) >= REST_DISTANCE; i++) {
+            s += step;
+        }
+        return s;
+    }
+
+    private double position(int axis, long time) {
+
+        double t = Math.max(time - timeStart, 0);
+        if (t < springTime[axis]) {
+            return positionStart[axis] + velocityStart[axis] * timeConstant * (1 - Math.exp(-t / timeConstant));
+        }
+
+        double s = t - springTime[axis];
+        double a = springOffset[axis];
+        double b = springVelocity[axis] + springFrequency * a;
+        return springBound[axis] + (a + b * s) * Math.exp(-springFrequency * s);
+    }
+
+    private double velocity(int axis, long time) {
+
+        double t = Math.max(time - timeStart, 0);
+        if (t < springTime[axis]) {
+            return velocityStart[axis] * Math.exp(-t / timeConstant);
+        }
+
+        double s = t - springTime[axis];
+        double a = springOffset[axis];
+        double b = springVelocity[axis] + springFrequency * a;
+        return (b - springFrequency * (a + b * s)) * Math.exp(-springFrequency * s);
+    }
+
+    public float getX(long time) {
+        return (float) position(X, time);
+    }
+
+    public float getY(long time) {
+        return (float) position(Y, time);
+    }
+
+    public float getVelocityX(long time) {
+        return (float) velocity(X, time);
+    }
+
+    public float getVelocityY(long time) {
+        return (float) velocity(Y, time);
+    }
+
+    /**
+     * Get the rest position for the x coordinate, where the fling ends.
+     *
+     * @return
+     */
+    public float getFinalX() {
+        return (float) finalPosition(X);
+    }
+
+    public float getFinalY() {
+        return (float) finalPosition(Y);
+    }
+
+    private double finalPosition(int axis) {
+        if (springTime[axis] != Double.POSITIVE_INFINITY) {
+            return springBound[axis];
+        }
+        return positionStart[axis] + velocityStart[axis] * timeConstant;
+    }
+
+    /**
+     * Get time from the start, until both axes are at rest (ms).
+     *
+     * @return
+     */
+    public long getDuration() {
+        return started ? (long) Math.ceil(Math.max(durations[X], durations[Y])) : 0;
+    }
+
+    public boolean isFinished(long time) {
+        return !started || time - timeStart >= getDuration();
+    }
+
+    /**
+     * Stop the fling, isFinished() returns true after that.
+     */
+    public void stop() {
+        started = false;
+    }
+
+    /**
+     * Set bounds for the x coordinate, use infinity when there is no bound.
+     *
+     * @param min - min position (px)
+     * @param max - max position (px)
+     */
+    public void setBoundsX(float min, float max) {
+        boundMin[X] = min;
+        boundMax[X] = max;
+    }
+
+    public void setBoundsY(float min, float max) {
+        boundMin[Y] = min;
+        boundMax[Y] = max;
+    }
+
+    /**
+     * Set interval for the rest position of the x coordinate, for example the width of a page.
+     *
+     * @param snapInterval - interval (px), 0 to disable snapping
+     */
+    public void setSnapIntervalX(float snapInterval) {
+        this.snapInterval[X] = snapInterval;
+    }
+
+    public void setSnapIntervalY(float snapInterval) {
+        this.snapInterval[Y] = snapInterval;
+    }
+
+    public double getTimeConstant() {
+        return timeConstant;
+    }
+
+    public void setTimeConstant(double timeConstant) {
+        this.timeConstant = timeConstant;
+    }
+
+    public double getSpringFrequency() {
+        return springFrequency;
+    }
+
+    public void setSpringFrequency(double springFrequency) {
+        this.springFrequency = springFrequency;
+    }
+
+    public float getMaxVelocity() {
+        return maxVelocity;
+    }
+
+    public void setMaxVelocity(float maxVelocity) {
+        this.maxVelocity = maxVelocity;
+    }
+
+    public boolean isOverscrollEnabled() {
+        return overscrollEnabled;
+    }
+
+    public void setOverscrollEnabled(boolean overscrollEnabled) {
+        this.overscrollEnabled = overscrollEnabled;
+    }
+}
@@ -0,0 +1,54 @@
+package com.slaviboy.gestures;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Public interface for clocks, that give the time of the frame that is currently drawn,
+ * and run callbacks on the next frame. It is used by the TouchResampler to align the finger
+ * positions to the frames, and by the GestureDetector to process the samples that are left
+ * buffered, when no other event arrives.
+ */
+public interface FrameClock {
+
+    /**
+     * Get the time of the frame, in which the input received now is drawn, in the same
+     * time base as MotionEvent.getEventTime().
+     *
+     * @return frame time (ms)
+     */
+    long getFrameTime();
+
+    /**
+     * Run the callback once, on the next frame. Posting callback that is already posted
+     * does nothing.
+     *
+     * @param callback - callback to run
+     */
+    void postFrameCallback(Runnable callback);
+
+    /**
+     * Remove callback posted with postFrameCallback(), that is not run yet.
+     *
+     * @param callback - callback to remove
+     */
+    void removeFrameCallback(Runnable callback);
+}
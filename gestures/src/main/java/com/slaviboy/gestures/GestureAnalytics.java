@@ -0,0 +1,371 @@
+package com.slaviboy.gestures;
+
+import android.os.SystemClock;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Class that aggregates gesture usage statistics in fixed memory, no matter how long the
+ * session is. For each state it keeps the number of state changes, and histograms with
+ * logarithmic buckets for the gesture duration and distance, taken from the finger values
+ * -durationInitial and -distanceInitial. For double taps the interval between the two taps
+ * is also kept. Bucket i holds the values in range [2^(i-1), 2^i), and bucket 0 holds zero.
+ * Each release is counted once, so the delayed -up that follows a swipe or a double tap is
+ * skipped, and the hold-down duration is measured when the delayed state is dispatched.
+ * <p>
+ * The analytics is registered to the GestureDetector as a listener, usually without the
+ * move states, and the snapshot is written periodically using writeSnapshot():
+ * <pre>
+ * detector.addOnGestureListener(analytics, GestureDetector.STATE_MASK_DISCRETE);
+ * </pre>
+ */
+public class GestureAnalytics implements GestureDetector.OnGestureListener {
+
+    public static final int BUCKETS = 32;                // number of logarithmic buckets for each histogram
+    public static final int SNAPSHOT_VERSION = 1;        // version written as first byte of each snapshot
+
+    private long[] counts;                 // number of state changes for each state
+    private long[] durationBuckets;        // duration histogram [state * BUCKETS + bucket] (ms)
+    private long[] durationMin;            // min duration for each state (ms)
+    private long[] durationMax;            // max duration for each state (ms)
+    private long[] distanceBuckets;        // distance histogram [state * BUCKETS + bucket] (px)
+    private long[] distanceMin;            // min distance for each state (px)
+    private long[] distanceMax;            // max distance for each state (px)
+
+    // interval between the two taps, for the double tap
+    private long[] doubleTapBuckets;       // double tap interval histogram (ms)
+    private long doubleTapCount;           // number of double taps with known interval
+    private long doubleTapMin;             // min double tap interval (ms)
+    private long doubleTapMax;             // max double tap interval (ms)
+
+    private long releasedIds;              // fingers whose release is already recorded, since their -down
+
+    public GestureAnalytics() {
+        int states = GestureDetector.STATE_COUNT;
+        counts = new long[states];
+        durationBuckets = new long[states * BUCKETS];
+        durationMin = new long[states];
+        durationMax = new long[states];
+        distanceBuckets = new long[states * BUCKETS];
+        distanceMin = new long[states];
+        distanceMax = new long[states];
+        doubleTapBuckets = new long[BUCKETS];
+        reset();
+    }
+
+    /**
+     * Clear all statistics, usually called after the snapshot is sent.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(durationBuckets, 0);
+        Arrays.fill(durationMin, Long.MAX_VALUE);
+        Arrays.fill(durationMax, 0);
+        Arrays.fill(distanceBuckets, 0);
+        Arrays.fill(distanceMin, Long.MAX_VALUE);
+        Arrays.fill(distanceMax, 0);
+        Arrays.fill(doubleTapBuckets, 0);
+        doubleTapCount = 0;
+        doubleTapMin = Long.MAX_VALUE;
+        doubleTapMax = 0;
+        releasedIds = 0;
+    }
+
+    @Override
+    public void onStateChange(Finger[] fingers, int fingerIndex) {
+
+        Finger finger = fingers[fingerIndex];
+        int state = finger.getStateCurrent();
+        long fingerId = fingerIndex < 64 ? 1L << fingerIndex : 0; // shift would wrap to a lower finger
+        if (state == GestureDetector.DOWN) {
+            releasedIds &= ~fingerId;
+        } else if (state == GestureDetector.UP && (releasedIds & fingerId) != 0) {
+
+            // delayed -up after swipe or double tap, the release is already recorded
+            return;
+        }
+        if (!finger.isTracking()) {
+            releasedIds |= fingerId;
+        }
+
+        // hold-down is delayed, so the duration is measured until now, not until the last event
+        long duration = state == GestureDetector.HOLD_DOWN ?
+                SystemClock.uptimeMillis() - finger.getTimeInitial() : (long) finger.getDurationInitial();
+        record(state, duration, Math.round(finger.getDistanceInitial()));
+
+        if (state == GestureDetector.DOUBLE_TAP && finger.getLastFinger() != null) {
+            recordDoubleTap(finger.getTimeInitial() - finger.getLastFinger().getTimeInitial());
+        }
+    }
+
+    /**
+     * Record state change with its gesture duration and distance.
+     *
+     * @param state    - the new finger state
+     * @param duration - gesture duration (ms)
+     * @param distance - gesture distance (px)
+     */
+    public void record(int state, long duration, long distance) {
+
+        duration = Math.max(duration, 0);
+        distance = Math.max(distance, 0);
+
+        counts[state]++;
+        durationBuckets[state * BUCKETS + bucketOf(duration)]++;
+        durationMin[state] = Math.min(durationMin[state], duration);
+        durationMax[state] = Math.max(durationMax[state], duration);
+        distanceBuckets[state * BUCKETS + bucketOf(distance)]++;
+        distanceMin[state] = Math.min(distanceMin[state], distance);
+        distanceMax[state] = Math.max(distanceMax[state], distance);
+    }
+
+    /**
+     * Record the interval between the two taps of a double tap.
+     *
+     * @param interval - interval between the two -down events (ms)
+     */
+    public void recordDoubleTap(long interval) {
+        interval = Math.max(interval, 0);
+        doubleTapCount++;
+        doubleTapBuckets[bucketOf(interval)]++;
+        doubleTapMin = Math.min(doubleTapMin, interval);
+        doubleTapMax = Math.max(doubleTapMax, interval);
+    }
+
+    /**
+     * Get the logarithmic bucket index for a non negative value.
+     *
+     * @param value - the value
+     * @return
+     */
+    public static int bucketOf(long value) {
+        return Math.min(64 - Long.numberOfLeadingZeros(value), BUCKETS - 1);
+    }
+
+    /**
+     * Get the smallest value that falls into a bucket.
+     *
+     * @param bucket - bucket index
+     * @return
+     */
+    public static long bucketLowerBound(int bucket) {
+        return bucket == 0 ? 0 : 1L << (bucket - 1);
+    }
+
+    /**
+     * Write compact snapshot with the statistics to the buffer. Only states with at least
+     * one state change and non empty buckets are written, all values are varints.
+     * Format: version, number of states, then for each state -state, -count, -durationMin,
+     * -durationMax, -distanceMin, -distanceMax and the two sparse histograms as number of
+     * non empty buckets followed by pairs (bucket, count). Last is the double tap interval
+     * count, and if it is not zero -min, -max and the histogram.
+     *
+     * @param out - buffer where the snapshot will be written
+     */
+    public void writeSnapshot(ByteBuffer out) {
+
+        out.put((byte) SNAPSHOT_VERSION);
+
+        int states = 0;
+        for (int state = 0; state < counts.length; state++) {
+            if (counts[state] > 0) {
+                states++;
+            }
+        }
+
+        Varint.writeUnsigned(out, states);
+        for (int state = 0; state < counts.length; state++) {
+            if (counts[state] == 0) {
+                continue;
+            }
+            Varint.writeUnsigned(out, state);
+            Varint.writeUnsigned(out, counts[state]);
+            Varint.writeUnsigned(out, durationMin[state]);
+            Varint.writeUnsigned(out, durationMax[state]);
+            Varint.writeUnsigned(out, distanceMin[state]);
+            Varint.writeUnsigned(out, distanceMax[state]);
+            writeHistogram(out, durationBuckets, state * BUCKETS);
+            writeHistogram(out, distanceBuckets, state * BUCKETS);
+        }
+
+        Varint.writeUnsigned(out, doubleTapCount);
+        if (doubleTapCount > 0) {
+            Varint.writeUnsigned(out, doubleTapMin);
+            Varint.writeUnsigned(out, doubleTapMax);
+            writeHistogram(out, doubleTapBuckets, 0);
+        }
+    }
+
+    private static void writeHistogram(ByteBuffer out, long[] buckets, int offset) {
+
+        int nonEmpty = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (buckets[offset + i] > 0) {
+                nonEmpty++;
+            }
+        }
+
+        Varint.writeUnsigned(out, nonEmpty);
+        for (int i = 0; i < BUCKETS; i++) {
+            if (buckets[offset + i] > 0) {
+                Varint.writeUnsigned(out, i);
+                Varint.writeUnsigned(out, buckets[offset + i]);
+            }
+        }
+    }
+
+    /**
+     * Read snapshot written with writeSnapshot() and add its values to the current
+     * statistics, that way snapshots from multiple sessions can be merged. The snapshot
+     * is validated before any value is added, so on exception the statistics are unchanged.
+     *
+     * @param in - buffer from where the snapshot will be read
+     */
+    public void readSnapshot(ByteBuffer in) {
+
+        validateSnapshot(in.duplicate());
+        in.get();
+
+        long states = Varint.readUnsigned(in);
+        for (long i = 0; i < states; i++) {
+            int state = (int) Varint.readUnsigned(in);
+            counts[state] += Varint.readUnsigned(in);
+            durationMin[state] = Math.min(durationMin[state], Varint.readUnsigned(in));
+            durationMax[state] = Math.max(durationMax[state], Varint.readUnsigned(in));
+            distanceMin[state] = Math.min(distanceMin[state], Varint.readUnsigned(in));
+            distanceMax[state] = Math.max(distanceMax[state], Varint.readUnsigned(in));
+            readHistogram(in, durationBuckets, state * BUCKETS);
+            readHistogram(in, distanceBuckets, state * BUCKETS);
+        }
+
+        long count = Varint.readUnsigned(in);
+        if (count > 0) {
+            doubleTapCount += count;
+            doubleTapMin = Math.min(doubleTapMin, Varint.readUnsigned(in));
+            doubleTapMax = Math.max(doubleTapMax, Varint.readUnsigned(in));
+            readHistogram(in, doubleTapBuckets, 0);
+        }
+    }
+
+    /**
+     * Read the snapshot without changing the statistics, and check the version, the states
+     * and the bucket indices.
+     */
+    private static void validateSnapshot(ByteBuffer in) {
+
+        int version = in.get();
+        if (version != SNAPSHOT_VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version " + version);
+        }
+
+        long states = Varint.readUnsigned(in);
+        if (states < 0 || states > GestureDetector.STATE_COUNT) {
+            throw new IllegalArgumentException("Snapshot has " + states + " states");
+        }
+        for (long i = 0; i < states; i++) {
+            long state = Varint.readUnsigned(in);
+            if (state < 0 || state >= GestureDetector.STATE_COUNT) {
+                throw new IllegalArgumentException("Snapshot has invalid state " + state);
+            }
+            for (int j = 0; j < 5; j++) {
+                Varint.readUnsigned(in);
+            }
+            validateHistogram(in);
+            validateHistogram(in);
+        }
+
+        if (Varint.readUnsigned(in) != 0) {
+            Varint.readUnsigned(in);
+            Varint.readUnsigned(in);
+            validateHistogram(in);
+        }
+    }
+
+    private static void validateHistogram(ByteBuffer in) {
+        long nonEmpty = Varint.readUnsigned(in);
+        if (nonEmpty < 0 || nonEmpty > BUCKETS) {
+            throw new IllegalArgumentException("Snapshot histogram has " + nonEmpty + " buckets");
+        }
+        for (long i = 0; i < nonEmpty; i++) {
+            long bucket = Varint.readUnsigned(in);
+            if (bucket < 0 || bucket >= BUCKETS) {
+                throw new IllegalArgumentException("Snapshot has invalid bucket " + bucket);
+            }
+            Varint.readUnsigned(in);
+        }
+    }
+
+    private static void readHistogram(ByteBuffer in, long[] buckets, int offset) {
+        long nonEmpty = Varint.readUnsigned(in);
+        for (long i = 0; i < nonEmpty; i++) {
+            int bucket = (int) Varint.readUnsigned(in);
+            buckets[offset + bucket] += Varint.readUnsigned(in);
+        }
+    }
+
+    public long getCount(int state) {
+        return counts[state];
+    }
+
+    public long getDurationBucket(int state, int bucket) {
+        return durationBuckets[state * BUCKETS + bucket];
+    }
+
+    public long getDurationMin(int state) {
+        return counts[state] == 0 ? 0 : durationMin[state];
+    }
+
+    public long getDurationMax(int state) {
+        return durationMax[state];
+    }
+
+    public long getDistanceBucket(int state, int bucket) {
+        return distanceBuckets[state * BUCKETS + bucket];
+    }
+
+    public long getDistanceMin(int state) {
+        return counts[state] == 0 ? 0 : distanceMin[state];
+    }
+
+    public long getDistanceMax(int state) {
+        return distanceMax[state];
+    }
+
+    public long getDoubleTapBucket(int bucket) {
+        return doubleTapBuckets[bucket];
+    }
+
+    public long getDoubleTapCount() {
+        return doubleTapCount;
+    }
+
+    public long getDoubleTapMin() {
+        return doubleTapCount == 0 ? 0 : doubleTapMin;
+    }
+
+    public long getDoubleTapMax() {
+        return doubleTapMax;
+    }
+}
@@ -36,7 +36,7 @@ import java.util.Arrays;
  * changes for one or multiple fingers separately from one another. That way multi
  * fingers gestures can be formed, and used in games or other apps.
  */
-public class GestureDetector implements View.OnTouchListener {
+public class GestureDetector implements View.OnTouchListener, Recognizer {
 
     // public finger states
     public static final int NONE = 0;
@@ -52,7 +52,19 @@ public class GestureDetector implements View.OnTouchListener {
     public static final int MOVE_LEFT = 10;
     public static final int MOVE_RIGHT = 11;
     public static final int DOUBLE_TAP = 12;
+    public static final int FORCE_PRESS = 13;
+    public static final int STATE_COUNT = 14;                        // number of finger states, used as size for the dispatch table
 
+    // public chord events, made with multiple fingers at once
+    public static final int CHORD_DOWN = 1;                          // fingers are pressed down within the chord down window
+    public static final int CHORD_TAP = 2;                           // all fingers of the chord are lift up as taps
+    public static final int CHORD_SWIPE = 3;                         // all fingers of the chord are swiped in the same direction
+
+    // masks used when registering listeners
+    public static final int STATE_MASK_ALL = (1 << STATE_COUNT) - 1; // listener is called for all finger states
+    public static final int FINGER_MASK_ALL = 0xFFFFFFFF;           // listener is called for all fingers
+    public static final int STATE_MASK_DISCRETE = STATE_MASK_ALL &   // listener is called for all states, except the move states
+            ~stateMask(MOVE_UP, MOVE_DOWN, MOVE_LEFT, MOVE_RIGHT);
 
     private int numberOfFingers;             // number of allowed fingers, that will be detected
     private int holdDownDelay;               // delay time after which if finger is -hold down, state will be changed to HOLD_DOWN
@@ -61,8 +73,50 @@ public class GestureDetector implements View.OnTouchListener {
     private Finger[] fingers;                // array with finger object that detect the -finger state, -gesture time, ...
     private Handler handler;                 // handler to post runnable in queue for changing state for a finger
     private ChangeState[] runnables;         // array that holds runnable for each finger, for changing finger state after delay
+    private TouchFrame frame;                // frame where the events received in onTouch() are decoded
+    private FingerSnapshotBuffer
+            snapshotBuffer;                 // buffer where finger states are published for other threads, null if disabled
+    private Stroke[] strokes;                // captured path for each finger, null if stroke capture is disabled
+    private int strokeCapacity;              // max number of points kept for each stroke
+    private float strokeTolerance;           // max distance of the skipped points from the simplified stroke (px)
+    private GestureInput gestureInput;       // polling input for game loops, null if polling is disabled
+    private int axes;                        // bitmask with the extra Finger.AXIS_* values captured, 0 - disabled
+    private int axisCapacity;                // number of samples kept for each extra axis
+    private int historyCapacity;             // number of timestamped positions kept for each finger, 0 - disabled
+    private TouchResampler resampler;        // resamples the move positions to the frame times, null if disabled
+    private PointF resampledPosition;        // position reused for the resampled finger positions
+    private ResamplePending resamplePending; // frame callback that processes the samples left buffered
+    // chord detection, bit for each finger index
+    private int minChordFingers;             // min number of fingers for chord
+    private int chordDownWindow;             // max time between the first and the last -down of chord (ms)
+    private int chordTapDuration;            // max time the finger can be hold down, for chord tap (ms)
+    private long activeIds;                  // fingers that are currently down
+    private long chordIds;                   // all fingers pressed down, since the first finger of the chord
+    private long chordTapIds;                // fingers of the chord lift up as tap
+    private long[] chordSwipeIds;            // fingers of the chord swiped in each direction, in the swipe states order
+    private long chordTimeFirst;             // time of the first -down of the chord (ms)
+    private long chordTimeLast;              // time of the last -down of the chord (ms)
+    private OnChordListener onChordListener; // listener used to call the onChord() method
     private OnGestureListener
-            onGestureListener;              // listener used to call the onStateChange() method
+            onGestureListener;              // listener set with setOnGestureListener(), registered for all states and fingers
+
+    // registered listeners
+    private OnGestureListener[] listeners;   // all registered listeners in order of registration, the arrays grow only
+    private int[] listenerStateMasks;        // bitmask with the states each listener is interested in
+    private int[] listenerFingerMasks;       // bitmask with the finger indices each listener is interested in
+    private int listenerCount;               // number of registered listeners
+
+    // placeholder kept in the dispatch table, when the listener set with setOnGestureListener() is removed
+    private static final OnGestureListener NO_LISTENER = new OnGestureListener() {
+        @Override
+        public void onStateChange(Finger[] fingers, int fingerIndex) {
+        }
+    };
+
+    // dispatch table precomputed per state, from the registered listeners
+    private OnGestureListener[][] dispatchListeners;  // for each state, the listeners interested in it
+    private int[][] dispatchFingerMasks;              // for each state, the finger masks of those listeners
+    private int[] dispatchCounts;                     // for each state, the number of listeners in the table
 
     public GestureDetector() {
         this(2, 100, 50, true);
@@ -71,12 +125,23 @@ public class GestureDetector implements View.OnTouchListener {
     public GestureDetector(int numberOfFingers, int holdDownDelay, int upDelay,
                            boolean consumeTouchEvents) {
         handler = new Handler();
+        frame = new TouchFrame();
 
         this.numberOfFingers = numberOfFingers;
         this.holdDownDelay = holdDownDelay;
         this.upDelay = upDelay;
         this.consumeTouchEvents = consumeTouchEvents;
 
+        minChordFingers = 2;
+        chordDownWindow = 80;
+        chordTapDuration = 250;
+        chordSwipeIds = new long[4];
+
+        listeners = new OnGestureListener[0];
+        listenerStateMasks = new int[0];
+        listenerFingerMasks = new int[0];
+        buildDispatchTable();
+
         setNumberOfFingers(numberOfFingers);
     }
 
@@ -86,15 +151,22 @@ public class GestureDetector implements View.OnTouchListener {
      * new current state, for a certain finger. Remove delay callback for
      * up state and set new one for hold-down state, and finally call listener method.
      *
-     * @param event        motion event from the onTouch event
+     * @param frame        decoded motion event from the onTouch event
      * @param arrayIndex   index corresponding to consecutive finger on screen
      * @param pointerIndex pointer index used, to get current finger position
      */
-    private void down(MotionEvent event, int arrayIndex, int pointerIndex) {
+    private void down(TouchFrame frame, int arrayIndex, int pointerIndex) {
 
         // set finger state and tracking
         fingers[arrayIndex].setTracking(true);
-        fingers[arrayIndex].detectState(event, pointerIndex);
+        detectState(frame, frame.getAction(), arrayIndex, pointerIndex);
+        if (strokes != null) {
+            PointF position = fingers[arrayIndex].getPositionInitial();
+            strokes[arrayIndex].begin(position.x, position.y);
+        }
+        if (resampler != null) {
+            resampler.begin(arrayIndex, frame.getEventTime(), frame.getX(pointerIndex), frame.getY(pointerIndex));
+        }
 
         // remove callback for change current state to -up
         handler.removeCallbacks(runnables[arrayIndex + fingers.length]);
@@ -103,7 +175,13 @@ public class GestureDetector implements View.OnTouchListener {
         handler.postDelayed(runnables[arrayIndex], holdDownDelay);
 
         // call listener method, fot state change
-        onGestureListener.onStateChange(fingers, arrayIndex);
+        dispatchStateChange(arrayIndex);
+        chordDown(arrayIndex, frame.getEventTime());
+
+        // finger can be pressed down hard enough for force press, before any -move
+        if (fingers[arrayIndex].checkForcePress()) {
+            dispatchStateChange(arrayIndex);
+        }
     }
 
 
@@ -112,15 +190,23 @@ public class GestureDetector implements View.OnTouchListener {
      * new current state, for a certain finger. Remove delay callback for
      * hold-down state and set new one for up state, and finally call listener method.
      *
-     * @param event        motion event from the onTouch event
+     * @param frame        decoded motion event from the onTouch event
      * @param arrayIndex   index corresponding to consecutive finger on screen
      * @param pointerIndex pointer index used, to get current finger position
      */
-    private void up(MotionEvent event, int arrayIndex, int pointerIndex) {
+    private void up(TouchFrame frame, int arrayIndex, int pointerIndex) {
 
         // set finger state and tracking
         fingers[arrayIndex].setTracking(false);
-        fingers[arrayIndex].detectState(event, pointerIndex);
+        detectState(frame, frame.getAction(), arrayIndex, pointerIndex);
+        if (strokes != null) {
+            PointF position = fingers[arrayIndex].getPositionCurrent();
+            strokes[arrayIndex].add(position.x, position.y);
+            strokes[arrayIndex].end();
+        }
+        if (resampler != null) {
+            resampler.clear(arrayIndex);
+        }
 
         // set callback for up state, if swipe or double tap event is made!!!
         int state = fingers[arrayIndex].getStateCurrent();
@@ -134,7 +220,30 @@ public class GestureDetector implements View.OnTouchListener {
         handler.removeCallbacks(runnables[arrayIndex]);
 
         // call listener method for state change
-        onGestureListener.onStateChange(fingers, arrayIndex);
+        dispatchStateChange(arrayIndex);
+        chordUp(arrayIndex);
+    }
+
+    /**
+     * Pass the pointer values from the frame to the finger, the extra axes are
+     * passed only when they are enabled with setAxes().
+     */
+    private void detectState(TouchFrame frame, int action, int arrayIndex, int pointerIndex) {
+        detectState(frame, action, arrayIndex, pointerIndex,
+                frame.getX(pointerIndex), frame.getY(pointerIndex), frame.getEventTime());
+    }
+
+    private void detectState(TouchFrame frame, int action, int arrayIndex, int pointerIndex,
+                             float x, float y, long time) {
+        Finger finger = fingers[arrayIndex];
+        if (axes == 0) {
+            finger.detectState(action, x, y, time);
+        } else if (frame == null) {
+            finger.detectState(action, x, y, time, finger.getPressure(), finger.getTouchMajor(), finger.getOrientation());
+        } else {
+            fingers[arrayIndex].detectState(action, x, y, time, frame.getPressure(pointerIndex),
+                    frame.getTouchMajor(pointerIndex), frame.getOrientation(pointerIndex));
+        }
     }
 
     /**
@@ -145,59 +254,235 @@ public class GestureDetector implements View.OnTouchListener {
      * @param event motion event from the onTouch event
      */
     public void move(MotionEvent event) {
+        frame.decode(event);
+        move(frame);
+    }
+
+    private void move(TouchFrame frame) {
+
+        // when resampling, the fingers are processed only for the first event in each frame
+        long resampleTime = resampler == null ? 0 : resampler.nextFrame();
 
-        int num = event.getPointerCount();
+        int num = frame.getPointerCount();
         for (int pointerIndex = 0; pointerIndex < num; pointerIndex++) {
-            int arrayIndex = event.getPointerId(pointerIndex);  // id corresponding to array index
+            int arrayIndex = frame.getPointerId(pointerIndex);  // id corresponding to array index
 
-            // if it is being tracked
-            if (arrayIndex < fingers.length && fingers[arrayIndex].isTracking()) {
+            // if it is being tracked, and not claimed by previous recognizer
+            if (arrayIndex < fingers.length && fingers[arrayIndex].isTracking() && !frame.isClaimed(arrayIndex)) {
 
                 // get last and current state
-                fingers[arrayIndex].detectState(event, pointerIndex);
+                if (resampler == null) {
+                    detectState(frame, MotionEvent.ACTION_MOVE, arrayIndex, pointerIndex);
+                } else {
+                    resampler.add(arrayIndex, frame, pointerIndex);
+                    if (resampleTime == TouchResampler.SAME_FRAME) {
 
-                // call only if state is changed
-                if (fingers[arrayIndex].getStateLast() != fingers[arrayIndex].getStateCurrent()) {
-                    onGestureListener.onStateChange(fingers, arrayIndex);
+                        // process the buffered samples on the next frame, if no other event arrives
+                        resampler.getFrameClock().postFrameCallback(resamplePending);
+                        continue;
+                    }
+                    resampler.resample(arrayIndex, resampleTime, resampledPosition);
+                    detectState(frame, MotionEvent.ACTION_MOVE, arrayIndex, pointerIndex,
+                            resampledPosition.x, resampledPosition.y, resampler.getResampledTime(arrayIndex));
                 }
+                moved(arrayIndex);
+            }
+        }
 
-                // if actual move is made reset the callback for the hold-down
-                if (fingers[arrayIndex].isUpdateLast()) {
-                    handler.removeCallbacks(runnables[arrayIndex]);
-                    handler.postDelayed(runnables[arrayIndex], holdDownDelay);
-                }
+    }
+
+    /**
+     * Called after new position is set for a finger on -move, to add it to the stroke,
+     * call the listeners if the state is changed and reset the hold-down callback.
+     *
+     * @param arrayIndex - finger index
+     */
+    private void moved(int arrayIndex) {
+
+        if (strokes != null) {
+            PointF position = fingers[arrayIndex].getPositionCurrent();
+            strokes[arrayIndex].add(position.x, position.y);
+        }
+
+        // call only if state is changed
+        if (fingers[arrayIndex].getStateLast() != fingers[arrayIndex].getStateCurrent()) {
+            dispatchStateChange(arrayIndex);
+            chordSwipe(arrayIndex);
+        }
+
+        // if actual move is made reset the callback for the hold-down
+        if (fingers[arrayIndex].isUpdateLast()) {
+            handler.removeCallbacks(runnables[arrayIndex]);
+            handler.postDelayed(runnables[arrayIndex], holdDownDelay);
+        }
+    }
+
+    /**
+     * Called on the frame after samples were left buffered by the resampler, to process
+     * them when no other -move event arrived for that frame.
+     */
+    private void processPending() {
+
+        long resampleTime = resampler.nextFrame();
+        if (resampleTime == TouchResampler.SAME_FRAME) {
+            resampler.getFrameClock().postFrameCallback(resamplePending);
+            return;
+        }
+
+        for (int i = 0; i < fingers.length; i++) {
+            if (fingers[i].isTracking() && resampler.isPending(i)) {
+                resampler.resample(i, resampleTime, resampledPosition);
+                detectState(null, MotionEvent.ACTION_MOVE, i, -1,
+                        resampledPosition.x, resampledPosition.y, resampler.getResampledTime(i));
+                moved(i);
             }
         }
+        publishSnapshot();
+    }
+
+    /**
+     * Called when finger is pressed down, to add it to the active fingers bitset. The first
+     * finger starts new chord, and when enough fingers are pressed within the chord down
+     * window, CHORD_DOWN is reported for each new finger.
+     *
+     * @param arrayIndex - finger index
+     * @param time       - time of the -down event (ms)
+     */
+    private void chordDown(int arrayIndex, long time) {
+
+        if (arrayIndex >= 64) {
+            return;
+        }
+
+        if (activeIds == 0) {
+            chordIds = 0;
+            chordTapIds = 0;
+            chordSwipeIds[0] = chordSwipeIds[1] = chordSwipeIds[2] = chordSwipeIds[3] = 0;
+            chordTimeFirst = time;
+        }
+
+        activeIds |= 1L << arrayIndex;
+        chordIds |= 1L << arrayIndex;
+        chordTimeLast = time;
+
+        int count = Long.bitCount(chordIds);
+        if (count >= minChordFingers && chordTimeLast - chordTimeFirst <= chordDownWindow) {
+            dispatchChord(CHORD_DOWN, count, NONE);
+        }
+    }
 
+    /**
+     * Called when the finger state is changed on move, to record early swipe for the chord.
+     *
+     * @param arrayIndex - finger index
+     */
+    private void chordSwipe(int arrayIndex) {
+        int state = fingers[arrayIndex].getStateCurrent();
+        if (arrayIndex < 64 && state >= SWIPE_UP && state <= SWIPE_RIGHT) {
+            chordSwipeIds[state - SWIPE_UP] |= 1L << arrayIndex;
+        }
+    }
+
+    /**
+     * Called when finger is lift up, to record how it is lift up and remove it from
+     * the active fingers bitset. When the last finger is lift up, the chord is complete
+     * and CHORD_TAP or CHORD_SWIPE is reported, if all fingers made the same gesture.
+     *
+     * @param arrayIndex - finger index
+     */
+    private void chordUp(int arrayIndex) {
+
+        if (arrayIndex >= 64) {
+            return;
+        }
+
+        long bit = 1L << arrayIndex;
+        Finger finger = fingers[arrayIndex];
+        int state = finger.getStateCurrent();
+        if (state >= SWIPE_UP && state <= SWIPE_RIGHT) {
+            chordSwipeIds[state - SWIPE_UP] |= bit;
+        } else if ((state == UP || state == DOUBLE_TAP) && !finger.isSwipeCommitted() &&
+                finger.getDurationInitial() <= chordTapDuration &&
+                finger.getDistanceInitial() < finger.getMinDistanceSwipe()) {
+            chordTapIds |= bit;
+        }
+
+        activeIds &= ~bit;
+        if (activeIds != 0) {
+            return;
+        }
+
+        int count = Long.bitCount(chordIds);
+        if (count < minChordFingers || chordTimeLast - chordTimeFirst > chordDownWindow) {
+            return;
+        }
+
+        if (chordTapIds == chordIds) {
+            dispatchChord(CHORD_TAP, count, NONE);
+            return;
+        }
+        for (int i = 0; i < chordSwipeIds.length; i++) {
+            if (chordSwipeIds[i] == chordIds) {
+                dispatchChord(CHORD_SWIPE, count, SWIPE_UP + i);
+                return;
+            }
+        }
+    }
+
+    private void dispatchChord(int chord, int fingerCount, int direction) {
+        if (onChordListener != null) {
+            onChordListener.onChord(chord, fingerCount, direction);
+        }
     }
 
     @Override
     public boolean onTouch(View v, MotionEvent event) {
+        frame.decode(v, event);
+        onFrame(frame);
+        return consumeTouchEvents;
+    }
+
+    /**
+     * Detect the finger states from a decoded touch event, used when the detector
+     * is part of a RecognizerPipeline. Pointers claimed by previous recognizers
+     * are skipped, the frame is never consumed.
+     *
+     * @param frame - decoded touch event
+     * @return false, so the following recognizers receive the frame
+     */
+    @Override
+    public boolean onFrame(TouchFrame frame) {
 
-        int pointerIndex = event.getActionIndex();
-        int arrayIndex = event.getPointerId(pointerIndex); // corresponds to array index, since it is const.
+        int pointerIndex = frame.getActionIndex();
+        int arrayIndex = frame.getPointerId(pointerIndex); // corresponds to array index, since it is const.
 
-        switch (event.getAction() & MotionEvent.ACTION_MASK) {
+        switch (frame.getAction()) {
             case MotionEvent.ACTION_DOWN:
             case MotionEvent.ACTION_POINTER_DOWN: {
-                if (arrayIndex < fingers.length) {
-                    down(event, arrayIndex, pointerIndex);
+                if (arrayIndex < fingers.length && !frame.isClaimed(arrayIndex)) {
+                    down(frame, arrayIndex, pointerIndex);
                 }
-                return consumeTouchEvents;
+                break;
             }
             case MotionEvent.ACTION_UP:
             case MotionEvent.ACTION_POINTER_UP: {
-                if (arrayIndex < fingers.length) {
-                    up(event, arrayIndex, pointerIndex);
+                if (arrayIndex < fingers.length && fingers[arrayIndex].isTracking()) {
+                    up(frame, arrayIndex, pointerIndex);
                 }
-                return consumeTouchEvents;
+                break;
             }
             case MotionEvent.ACTION_MOVE: {
-                move(event);
-                return consumeTouchEvents;
+                move(frame);
+                break;
+            }
+            case MotionEvent.ACTION_CANCEL: {
+                cancel();
+                break;
             }
         }
-        return consumeTouchEvents;
+
+        publishSnapshot();
+        return false;
     }
 
     /**
@@ -210,7 +495,7 @@ public class GestureDetector implements View.OnTouchListener {
         this.numberOfFingers = numberOfFingers;
 
         // remove all callbacks
-        handler.removeCallbacks(null);
+        removeCallbacks();
 
         fingers = new Finger[numberOfFingers];
         runnables = new ChangeState[numberOfFingers * 2]; // set twice as many runnables, as the number of allowed fingers, for 4-Runnable => 2-HoldDown + 2-Up
@@ -224,14 +509,528 @@ public class GestureDetector implements View.OnTouchListener {
             runnables[i] = new ChangeState(i, HOLD_DOWN);            // first half for hold down
             runnables[i + numberOfFingers] = new ChangeState(i, UP); // second half for up
         }
+
+        activeIds = 0;
+        chordIds = 0;
+
+        if (snapshotBuffer != null) {
+            snapshotBuffer = new FingerSnapshotBuffer(numberOfFingers);
+        }
+        if (strokes != null) {
+            setStrokeCapture(strokeCapacity, strokeTolerance);
+        }
+        if (axes != 0) {
+            setAxes(axes, axisCapacity);
+        }
+        if (historyCapacity > 0) {
+            setHistoryCapacity(historyCapacity);
+        }
+        if (resampler != null) {
+            resampler.getFrameClock().removeFrameCallback(resamplePending);
+            resampler.setNumberOfFingers(numberOfFingers);
+        }
+    }
+
+    /**
+     * Called on ACTION_CANCEL event, when the gesture is taken away, for example by a parent
+     * view that starts scrolling. All fingers stop being tracked without -up state, the
+     * pending hold-down and up callbacks are removed, and the chords, strokes and resampled samples
+     * are cleared, so the next -down starts from a clean state.
+     */
+    private void cancel() {
+
+        removeCallbacks();
+        for (int i = 0; i < fingers.length; i++) {
+            fingers[i].setTracking(false);
+            if (strokes != null && strokes[i].isActive()) {
+                strokes[i].end();
+            }
+            if (resampler != null) {
+                resampler.clear(i);
+            }
+        }
+        if (resampler != null) {
+            resampler.getFrameClock().removeFrameCallback(resamplePending);
+        }
+
+        activeIds = 0;
+        chordIds = 0;
+        chordTapIds = 0;
+        Arrays.fill(chordSwipeIds, 0);
+
+        if (gestureInput != null) {
+            gestureInput.reset();
+        }
+    }
+
+    /**
+     * Remove the pending hold-down and up callbacks for all fingers.
+     */
+    private void removeCallbacks() {
+        if (runnables == null) {
+            return;
+        }
+        for (int i = 0; i < runnables.length; i++) {
+            handler.removeCallbacks(runnables[i]);
+        }
+    }
+
+    /**
+     * Reset the detector, so it can be reused for another view, like when it is recycled
+     * by GestureDetectorPool. The pending hold-down and up callbacks are removed, the finger
+     * states, chords, strokes and resampled samples are cleared, and all listeners are
+     * removed - the ones set with setOnGestureListener() and setOnChordListener(), the ones
+     * registered with addOnGestureListener() and the polling input, so the detector never
+     * calls the listeners of its previous view. The properties are kept, and nothing is
+     * allocated, the listener arrays and the dispatch table are reused for the next bind.
+     */
+    public void reset() {
+
+        removeCallbacks();
+        for (int i = 0; i < fingers.length; i++) {
+            fingers[i].clear();
+            if (strokes != null) {
+                strokes[i].clear();
+            }
+            if (resampler != null) {
+                resampler.clear(i);
+            }
+        }
+        if (resampler != null) {
+            resampler.getFrameClock().removeFrameCallback(resamplePending);
+        }
+
+        activeIds = 0;
+        chordIds = 0;
+        chordTapIds = 0;
+        Arrays.fill(chordSwipeIds, 0);
+        chordTimeFirst = 0;
+        chordTimeLast = 0;
+
+        if (gestureInput != null) {
+            gestureInput.reset();
+            gestureInput = null;
+        }
+        Arrays.fill(listeners, 0, listenerCount, null);
+        listenerCount = 0;
+        onGestureListener = null;
+        onChordListener = null;
+        buildDispatchTable();
+        publishSnapshot();
     }
 
     public int getNumberOfFingers() {
         return numberOfFingers;
     }
 
+    /**
+     * Get the finger objects, that can be used to change the finger properties
+     * like thresholds and filters. New objects are created by setNumberOfFingers().
+     *
+     * @return
+     */
+    public Finger[] getFingers() {
+        return fingers;
+    }
+
+    /**
+     * Set listener that is called for all states and all fingers. It replaces the listener
+     * previously set with this method, listeners registered with addOnGestureListener()
+     * are kept.
+     *
+     * @param onGestureListener - listener or null to remove the previous one
+     */
     public void setOnGestureListener(OnGestureListener onGestureListener) {
+
+        // replace the previous listener in place, so rebinding does not allocate
+        OnGestureListener previous = this.onGestureListener != null ? this.onGestureListener : NO_LISTENER;
+        OnGestureListener next = onGestureListener != null ? onGestureListener : NO_LISTENER;
+        int index = indexOfListener(previous);
+        if (index >= 0 && indexOfListener(next) < 0 &&
+                listenerStateMasks[index] == STATE_MASK_ALL && listenerFingerMasks[index] == FINGER_MASK_ALL) {
+            replaceListener(index, next);
+            this.onGestureListener = onGestureListener;
+            return;
+        }
+
+        if (index >= 0) {
+            removeOnGestureListener(previous);
+        }
         this.onGestureListener = onGestureListener;
+        if (onGestureListener != null) {
+            addOnGestureListener(onGestureListener, STATE_MASK_ALL, FINGER_MASK_ALL);
+        }
+    }
+
+    public OnGestureListener getOnGestureListener() {
+        return onGestureListener;
+    }
+
+    /**
+     * Register listener that is called only for the states in -stateMask, and only
+     * for the fingers in -fingerMask. Use stateMask() to create the state mask, and
+     * set bit (1 << fingerIndex) in the finger mask for each finger of interest.
+     * Registering the same listener again, replaces its masks.
+     *
+     * @param listener   - listener that will be called
+     * @param stateMask  - bitmask with the states of interest, or STATE_MASK_ALL
+     * @param fingerMask - bitmask with the finger indices of interest, or FINGER_MASK_ALL
+     */
+    public void addOnGestureListener(OnGestureListener listener, int stateMask, int fingerMask) {
+
+        int index = indexOfListener(listener);
+        if (index < 0) {
+            if (listenerCount == listeners.length) {
+                int capacity = Math.max(4, listenerCount * 2);
+                listeners = Arrays.copyOf(listeners, capacity);
+                listenerStateMasks = Arrays.copyOf(listenerStateMasks, capacity);
+                listenerFingerMasks = Arrays.copyOf(listenerFingerMasks, capacity);
+            }
+            index = listenerCount;
+            listenerCount++;
+        }
+
+        listeners[index] = listener;
+        listenerStateMasks[index] = stateMask;
+        listenerFingerMasks[index] = fingerMask;
+        buildDispatchTable();
+    }
+
+    /**
+     * Register listener that is called for the states in -stateMask, for all fingers.
+     *
+     * @param listener  - listener that will be called
+     * @param stateMask - bitmask with the states of interest, or STATE_MASK_ALL
+     */
+    public void addOnGestureListener(OnGestureListener listener, int stateMask) {
+        addOnGestureListener(listener, stateMask, FINGER_MASK_ALL);
+    }
+
+    /**
+     * Unregister listener, previously registered with addOnGestureListener()
+     * or setOnGestureListener().
+     *
+     * @param listener - listener to remove
+     */
+    public void removeOnGestureListener(OnGestureListener listener) {
+
+        int index = indexOfListener(listener);
+        if (index < 0) {
+            return;
+        }
+
+        // shift the rest of the listeners, to keep the registration order
+        int moved = listenerCount - index - 1;
+        System.arraycopy(listeners, index + 1, listeners, index, moved);
+        System.arraycopy(listenerStateMasks, index + 1, listenerStateMasks, index, moved);
+        System.arraycopy(listenerFingerMasks, index + 1, listenerFingerMasks, index, moved);
+        listenerCount--;
+        listeners[listenerCount] = null;
+
+        if (listener == onGestureListener) {
+            onGestureListener = null;
+        }
+        buildDispatchTable();
+    }
+
+    /**
+     * Replace listener in the registered listeners and in the dispatch table, keeping
+     * its masks, without rebuilding the table.
+     */
+    private void replaceListener(int index, OnGestureListener listener) {
+        OnGestureListener previous = listeners[index];
+        listeners[index] = listener;
+        for (int state = 0; state < STATE_COUNT; state++) {
+            OnGestureListener[] targets = dispatchListeners[state];
+            for (int i = 0; i < dispatchCounts[state]; i++) {
+                if (targets[i] == previous) {
+                    targets[i] = listener;
+                }
+            }
+        }
+    }
+
+    private int indexOfListener(OnGestureListener listener) {
+        for (int i = 0; i < listenerCount; i++) {
+            if (listeners[i] == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Create bitmask for the given states, that can be used when registering listener.
+     *
+     * @param states - finger states like SWIPE_UP, DOUBLE_TAP...
+     * @return
+     */
+    public static int stateMask(int... states) {
+        int mask = 0;
+        for (int state : states) {
+            mask |= 1 << state;
+        }
+        return mask;
+    }
+
+    /**
+     * Rebuild the dispatch table, that holds for each state only the listeners
+     * interested in it. Called only when listeners are added or removed, that
+     * way dispatching a state change does not need to filter all listeners. The
+     * arrays for each state are reused, and grow only when they are too small.
+     */
+    private void buildDispatchTable() {
+
+        if (dispatchListeners == null) {
+            dispatchListeners = new OnGestureListener[STATE_COUNT][0];
+            dispatchFingerMasks = new int[STATE_COUNT][0];
+            dispatchCounts = new int[STATE_COUNT];
+        }
+
+        for (int state = 0; state < STATE_COUNT; state++) {
+
+            // count listeners for the state
+            int count = 0;
+            for (int i = 0; i < listenerCount; i++) {
+                if ((listenerStateMasks[i] & (1 << state)) != 0) {
+                    count++;
+                }
+            }
+
+            // fill the dense arrays for the state, and clear the unused rest
+            if (dispatchListeners[state].length < count) {
+                dispatchListeners[state] = new OnGestureListener[count];
+                dispatchFingerMasks[state] = new int[count];
+            }
+            Arrays.fill(dispatchListeners[state], count, dispatchListeners[state].length, null);
+            dispatchCounts[state] = count;
+            int j = 0;
+            for (int i = 0; i < listenerCount; i++) {
+                if ((listenerStateMasks[i] & (1 << state)) != 0) {
+                    dispatchListeners[state][j] = listeners[i];
+                    dispatchFingerMasks[state][j] = listenerFingerMasks[i];
+                    j++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Call the listeners interested in the current state of a certain finger,
+     * using the precomputed dispatch table.
+     *
+     * @param arrayIndex - finger index whose state is changed
+     */
+    private void dispatchStateChange(int arrayIndex) {
+
+        int state = fingers[arrayIndex].getStateCurrent();
+
+        // fingers with index above 31 are only matched by FINGER_MASK_ALL, and the table is read
+        // again on each step, since it is updated in place when a listener is added or removed
+        int fingerBit = arrayIndex < 32 ? 1 << arrayIndex : 0;
+        for (int i = 0; i < dispatchCounts[state]; i++) {
+            int fingerMask = dispatchFingerMasks[state][i];
+            if ((fingerMask & fingerBit) != 0 || fingerMask == FINGER_MASK_ALL) {
+                dispatchListeners[state][i].onStateChange(fingers, arrayIndex);
+            }
+        }
+    }
+
+    /**
+     * Enable publishing of the finger states after each touch event and state change,
+     * that way other threads like the render thread can read them without locking, using
+     * the buffer returned by getSnapshotBuffer(). The buffer is created again when the
+     * number of fingers is changed.
+     *
+     * @param snapshotEnabled - whether to publish the finger states
+     */
+    public void setSnapshotEnabled(boolean snapshotEnabled) {
+        if (!snapshotEnabled) {
+            snapshotBuffer = null;
+        } else if (snapshotBuffer == null) {
+            snapshotBuffer = new FingerSnapshotBuffer(numberOfFingers);
+            publishSnapshot();
+        }
+    }
+
+    public boolean isSnapshotEnabled() {
+        return snapshotBuffer != null;
+    }
+
+    public FingerSnapshotBuffer getSnapshotBuffer() {
+        return snapshotBuffer;
+    }
+
+    private void publishSnapshot() {
+        if (snapshotBuffer != null) {
+            snapshotBuffer.publish(fingers);
+        }
+    }
+
+    /**
+     * Enable capturing of extra axes like pressure, touch major and orientation, each
+     * axis is kept in its own column for each finger. When the pressure is captured
+     * the FORCE_PRESS state is detected. Frames decoded outside the detector, like in
+     * RecognizerPipeline, must have the same axes set.
+     *
+     * @param axes     - bitmask with Finger.AXIS_PRESSURE, AXIS_TOUCH_MAJOR, AXIS_ORIENTATION, 0 to disable
+     * @param capacity - number of samples kept for each axis
+     */
+    public void setAxes(int axes, int capacity) {
+        this.axes = axes;
+        this.axisCapacity = capacity;
+        frame.setAxes(axes);
+        for (int i = 0; i < fingers.length; i++) {
+            fingers[i].setAxes(axes, capacity);
+        }
+    }
+
+    public int getAxes() {
+        return axes;
+    }
+
+    /**
+     * Enable keeping history of the timestamped positions for each finger, that can be
+     * queried with getFingers()[i].getHistory().getPosition(time, point).
+     *
+     * @param capacity - max number of kept positions for each finger, 0 to disable the history
+     */
+    public void setHistoryCapacity(int capacity) {
+        this.historyCapacity = capacity;
+        for (int i = 0; i < fingers.length; i++) {
+            fingers[i].setHistoryCapacity(capacity);
+        }
+    }
+
+    public int getHistoryCapacity() {
+        return historyCapacity;
+    }
+
+    /**
+     * Enable resampling of the move positions to the frame times from the clock. The move
+     * samples are buffered and processed once for each frame, with the finger position
+     * interpolated at the frame time, so the listener gets one consistent position per frame.
+     *
+     * @param frameClock - clock with the frame times like ChoreographerFrameClock, null to disable resampling
+     */
+    public void setFrameClock(FrameClock frameClock) {
+        if (resampler != null) {
+            resampler.getFrameClock().removeFrameCallback(resamplePending);
+        }
+        if (frameClock == null) {
+            resampler = null;
+        } else {
+            resampler = new TouchResampler(frameClock, fingers.length);
+            resampledPosition = new PointF();
+            resamplePending = new ResamplePending();
+        }
+    }
+
+    /**
+     * Get the resampler, that can be used to change the latency and the max extrapolation.
+     *
+     * @return the resampler, or null if resampling is disabled
+     */
+    public TouchResampler getTouchResampler() {
+        return resampler;
+    }
+
+    /**
+     * Enable capturing of the path for each finger from -down to -up, simplified
+     * while the finger moves, so it fits in the given capacity.
+     *
+     * @param capacity  - max number of points kept for each finger, at least 3
+     * @param tolerance - max distance of the skipped points from the simplified path (px)
+     */
+    public void setStrokeCapture(int capacity, float tolerance) {
+        strokeCapacity = capacity;
+        strokeTolerance = tolerance;
+        strokes = new Stroke[numberOfFingers];
+        for (int i = 0; i < numberOfFingers; i++) {
+            strokes[i] = new Stroke(capacity, tolerance);
+        }
+    }
+
+    public void disableStrokeCapture() {
+        strokes = null;
+    }
+
+    public boolean isStrokeCaptureEnabled() {
+        return strokes != null;
+    }
+
+    /**
+     * Get the captured path for a finger, it is reused for the following strokes
+     * of the same finger.
+     *
+     * @param fingerIndex - finger index
+     * @return the stroke, or null if stroke capture is disabled
+     */
+    public Stroke getStroke(int fingerIndex) {
+        return strokes == null ? null : strokes[fingerIndex];
+    }
+
+    /**
+     * Enable polling of the discrete finger states, that way fixed-timestep game
+     * loops can poll the events and the edge flags on each tick.
+     *
+     * @param capacity - max number of events that are kept, until they are polled
+     * @return the input that is polled by the game thread
+     */
+    public GestureInput enablePolling(int capacity) {
+        disablePolling();
+        gestureInput = new GestureInput(capacity);
+        addOnGestureListener(gestureInput, STATE_MASK_DISCRETE);
+        return gestureInput;
+    }
+
+    public void disablePolling() {
+        if (gestureInput != null) {
+            removeOnGestureListener(gestureInput);
+            gestureInput = null;
+        }
+    }
+
+    public GestureInput getGestureInput() {
+        return gestureInput;
+    }
+
+    public void setOnChordListener(OnChordListener onChordListener) {
+        this.onChordListener = onChordListener;
+    }
+
+    public int getMinChordFingers() {
+        return minChordFingers;
+    }
+
+    public void setMinChordFingers(int minChordFingers) {
+        this.minChordFingers = minChordFingers;
+    }
+
+    public int getChordDownWindow() {
+        return chordDownWindow;
+    }
+
+    public void setChordDownWindow(int chordDownWindow) {
+        this.chordDownWindow = chordDownWindow;
+    }
+
+    public int getChordTapDuration() {
+        return chordTapDuration;
+    }
+
+    public void setChordTapDuration(int chordTapDuration) {
+        this.chordTapDuration = chordTapDuration;
+    }
+
+    /**
+     * Get bitset with the fingers that are currently down, bit (1 << fingerIndex)
+     * for each finger.
+     *
+     * @return
+     */
+    public long getActiveIds() {
+        return activeIds;
     }
 
     public int getHoldDownDelay() {
@@ -242,7 +1041,7 @@ public class GestureDetector implements View.OnTouchListener {
         this.holdDownDelay = holdDownDelay;
 
         // remove all callbacks
-        handler.removeCallbacks(null);
+        removeCallbacks();
     }
 
     public int getUpDelay() {
@@ -253,7 +1052,7 @@ public class GestureDetector implements View.OnTouchListener {
         this.upDelay = upDelay;
 
         // remove all callbacks
-        handler.removeCallbacks(null);
+        removeCallbacks();
     }
 
     public boolean isConsumeTouchEvents() {
@@ -284,7 +1083,20 @@ public class GestureDetector implements View.OnTouchListener {
             // set last state, before changing current
             fingers[arrayIndex].setStateLast(fingers[arrayIndex].getStateCurrent());
             fingers[arrayIndex].setStateCurrent(newState);
-            onGestureListener.onStateChange(fingers, arrayIndex);
+            dispatchStateChange(arrayIndex);
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * Frame callback, that processes the samples left buffered by the resampler.
+     */
+    class ResamplePending implements Runnable {
+
+        public void run() {
+            if (resampler != null) {
+                processPending();
+            }
         }
     }
 
@@ -304,4 +1116,20 @@ public class GestureDetector implements View.OnTouchListener {
          */
         void onStateChange(Finger[] fingers, int fingerIndex);
     }
+
+    /**
+     * Public interface with one method, that can be implemented and listen for
+     * chord events, made with multiple fingers at once.
+     */
+    public interface OnChordListener {
+
+        /**
+         * Called when chord event is detected.
+         *
+         * @param chord       - CHORD_DOWN, CHORD_TAP or CHORD_SWIPE
+         * @param fingerCount - number of fingers in the chord
+         * @param direction   - swipe state like SWIPE_UP for CHORD_SWIPE, NONE otherwise
+         */
+        void onChord(int chord, int fingerCount, int direction);
+    }
 }
@@ -0,0 +1,188 @@
+package com.slaviboy.gestures;
+
+import android.view.View;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Class that keeps reset GestureDetector objects, so they can be reused for recycled views
+ * like the rows of scrolling lists, instead of creating new detector on each bind with its
+ * handler, fingers, runnables and points. Released detectors are reset with
+ * GestureDetector.reset(), that also removes all their listeners, so a detector never calls
+ * the listeners of the view it was bound to before. Acquiring a detector from the pool does
+ * not allocate. The pool
+ * counts hits and misses, so the hit rate can be checked.
+ * <p>
+ * The pool must be used from the main thread, like the detectors.
+ * <pre>
+ * // on bind
+ * GestureDetector detector = pool.acquire(view, listener);
+ * // on recycle
+ * pool.release(view, detector);
+ * </pre>
+ */
+public class GestureDetectorPool {
+
+    // public default constants
+    public static final int CAPACITY = 16;
+
+    private final GestureDetector[] detectors;  // free detectors, ready to be acquired
+    private int count;                          // number of free detectors
+
+    // properties for the new detectors
+    private final int numberOfFingers;          // number of allowed fingers, that will be detected
+    private final int holdDownDelay;            // delay time after which if finger is -hold down, state will be changed to HOLD_DOWN
+    private final int upDelay;                  // delay time after which if finger is -swiped, state will be changed to UP
+    private final boolean consumeTouchEvents;   // whether to consume the touch event after handling
+
+    // metrics
+    private long hits;                          // detectors acquired from the free detectors
+    private long misses;                        // detectors created, because there were no free detectors
+    private long dropped;                       // released detectors, that did not fit in the pool
+
+    public GestureDetectorPool() {
+        this(CAPACITY);
+    }
+
+    public GestureDetectorPool(int capacity) {
+        this(capacity, 2, 100, 50, true);
+    }
+
+    public GestureDetectorPool(int capacity, int numberOfFingers, int holdDownDelay, int upDelay,
+                               boolean consumeTouchEvents) {
+        detectors = new GestureDetector[capacity];
+        this.numberOfFingers = numberOfFingers;
+        this.holdDownDelay = holdDownDelay;
+        this.upDelay = upDelay;
+        this.consumeTouchEvents = consumeTouchEvents;
+    }
+
+    /**
+     * Create detectors ahead, so the first binds do not create them.
+     *
+     * @param number - number of detectors to create, limited by the capacity
+     */
+    public void prefill(int number) {
+        while (count < detectors.length && number-- > 0) {
+            detectors[count++] = create();
+        }
+    }
+
+    private GestureDetector create() {
+        return new GestureDetector(numberOfFingers, holdDownDelay, upDelay, consumeTouchEvents);
+    }
+
+    /**
+     * Get free detector from the pool, or create new one if the pool is empty.
+     *
+     * @return detector in its reset state
+     */
+    public GestureDetector acquire() {
+        if (count > 0) {
+            hits++;
+            GestureDetector detector = detectors[--count];
+            detectors[count] = null;
+            return detector;
+        }
+        misses++;
+        return create();
+    }
+
+    /**
+     * Get detector from the pool, and bind it to the view and the listener.
+     *
+     * @param view     - view whose touch events are detected
+     * @param listener - listener set with setOnGestureListener()
+     * @return the bound detector
+     */
+    public GestureDetector acquire(View view, GestureDetector.OnGestureListener listener) {
+        GestureDetector detector = acquire();
+        detector.setOnGestureListener(listener);
+        view.setOnTouchListener(detector);
+        return detector;
+    }
+
+    /**
+     * Reset the detector and return it to the pool. When the pool is full, the
+     * detector is dropped.
+     *
+     * @param detector - detector to release, it must not be used after that
+     */
+    public void release(GestureDetector detector) {
+        detector.reset();
+        if (count < detectors.length) {
+            detectors[count++] = detector;
+        } else {
+            dropped++;
+        }
+    }
+
+    /**
+     * Unbind the detector from the view, and return it to the pool.
+     *
+     * @param view     - view the detector was bound to
+     * @param detector - detector to release, it must not be used after that
+     */
+    public void release(View view, GestureDetector detector) {
+        view.setOnTouchListener(null);
+        release(detector);
+    }
+
+    /**
+     * Remove all free detectors, so they can be garbage collected. The metrics are kept.
+     */
+    public void clear() {
+        while (count > 0) {
+            detectors[--count] = null;
+        }
+    }
+
+    /**
+     * Get the part of the acquired detectors, that were taken from the pool.
+     *
+     * @return hit rate in range [0, 1], or 0 if nothing is acquired yet
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public long getHitCount() {
+        return hits;
+    }
+
+    public long getMissCount() {
+        return misses;
+    }
+
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    public int getFreeCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return detectors.length;
+    }
+}
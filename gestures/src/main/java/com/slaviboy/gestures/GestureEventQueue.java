@@ -0,0 +1,144 @@
+package com.slaviboy.gestures;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Bounded lock-free queue with multiple producers and a single consumer, that holds gesture
+ * events packed into long values, so adding and removing events does not allocate. Each slot
+ * has a sequence number, a producer claims a slot by moving the tail with compare-and-set and
+ * publishes the event by setting the slot sequence, and the consumer frees the slot by moving
+ * the sequence one lap ahead (Vyukov bounded queue). When the queue is full new events are
+ * dropped and counted, so a slow consumer never blocks the UI thread.
+ * <p>
+ * Event value bits: 0-7 state, 8-15 finger index, 16-63 time (ms).
+ */
+public class GestureEventQueue {
+
+    public static final long EMPTY = -1;          // returned by poll() when there are no events
+
+    private final int mask;                       // capacity - 1, used to get the slot index
+    private final AtomicLongArray sequences;      // sequence number for each slot
+    private final AtomicLongArray events;         // event value for each slot
+    private final AtomicLong tail;                // position where the next event will be added
+    private final AtomicLong dropped;             // number of events dropped, because the queue was full
+    private long head;                            // position of the next event to poll, used only by the consumer
+
+    /**
+     * @param capacity - max number of events, rounded up to power of two
+     */
+    public GestureEventQueue(int capacity) {
+
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        mask = size - 1;
+        sequences = new AtomicLongArray(size);
+        events = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        tail = new AtomicLong();
+        dropped = new AtomicLong();
+    }
+
+    /**
+     * Add event to the queue, can be called from multiple threads.
+     *
+     * @param fingerIndex - finger index whose state is changed
+     * @param state       - the new finger state
+     * @param time        - time of the state change (ms)
+     * @return false if the queue is full and the event is dropped
+     */
+    public boolean offer(int fingerIndex, int state, long time) {
+        return offer(pack(fingerIndex, state, time));
+    }
+
+    private boolean offer(long event) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events.lazySet(index, event);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Remove the oldest event, must be called only from the consumer thread.
+     *
+     * @return the event value, or EMPTY if there are no events
+     */
+    public long poll() {
+
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return EMPTY;
+        }
+
+        long event = events.get(index);
+        sequences.set(index, head + mask + 1);
+        head++;
+        return event;
+    }
+
+    /**
+     * Remove all events without handling them, must be called only from the consumer thread.
+     */
+    public void clear() {
+        while (poll() != EMPTY) {
+            // skip
+        }
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    static long pack(int fingerIndex, int state, long time) {
+        return time << 16 | (fingerIndex & 0xFF) << 8 | (state & 0xFF);
+    }
+
+    public static int getState(long event) {
+        return (int) (event & 0xFF);
+    }
+
+    public static int getFingerIndex(long event) {
+        return (int) (event >>> 8 & 0xFF);
+    }
+
+    public static long getTime(long event) {
+        return event >>> 16;
+    }
+}
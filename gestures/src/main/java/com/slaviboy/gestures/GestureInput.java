@@ -0,0 +1,171 @@
+package com.slaviboy.gestures;
+
+import android.os.SystemClock;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Class that can be polled from a fixed-timestep game loop, instead of handling the finger
+ * states in listener callbacks. The discrete state changes are added to a lock-free
+ * GestureEventQueue, and edge flags for each finger are collected - pressed, released and
+ * swiped. At the start of each tick, the game thread calls beginTick() that takes the flags
+ * collected since the previous tick, so each edge is seen in exactly one tick, and then polls
+ * the events. Nothing is locked or allocated on both sides.
+ * <pre>
+ * GestureInput input = detector.enablePolling(64);
+ *
+ * // game thread
+ * input.beginTick();
+ * if (input.wasPressed(0)) { ... }
+ * for (long e = input.poll(); e != GestureEventQueue.EMPTY; e = input.poll()) { ... }
+ * </pre>
+ */
+public class GestureInput implements GestureDetector.OnGestureListener {
+
+    private final GestureEventQueue queue;      // queue with the discrete state changes
+
+    // edge flags collected since the previous tick, bit for each finger index
+    private final AtomicLong pressed;           // finger is pressed down
+    private final AtomicLong released;          // finger is lift up
+    private final AtomicLong swiped;            // finger made a swipe
+
+    private long down;                          // bit for each finger that is down, used only by the UI thread
+
+    // edge flags for the current tick, used only by the game thread
+    private long tickPressed;
+    private long tickReleased;
+    private long tickSwiped;
+
+    public GestureInput(int capacity) {
+        queue = new GestureEventQueue(capacity);
+        pressed = new AtomicLong();
+        released = new AtomicLong();
+        swiped = new AtomicLong();
+    }
+
+    @Override
+    public void onStateChange(Finger[] fingers, int fingerIndex) {
+
+        Finger finger = fingers[fingerIndex];
+        int state = finger.getStateCurrent();
+        long bit = fingerIndex < 64 ? 1L << fingerIndex : 0;
+
+        // touch driven states are stamped with the event time, the delayed hold-down and
+        // the delayed up after a swipe or double tap, with the time they are dispatched
+        boolean delayed = state == GestureDetector.HOLD_DOWN ||
+                (state == GestureDetector.UP && (down & bit) == 0);
+        queue.offer(fingerIndex, state, delayed ? SystemClock.uptimeMillis() : finger.getTimeCurrent());
+
+        if (bit == 0) {
+            return;
+        }
+        if (state == GestureDetector.DOWN) {
+            down |= bit;
+            setBits(pressed, bit);
+            return;
+        }
+
+        if (isSwipe(state)) {
+            setBits(swiped, bit);
+        }
+
+        // the delayed UP after a swipe or double tap, is not a new release
+        if ((down & bit) != 0 && !finger.isTracking() && (isSwipe(state) ||
+                state == GestureDetector.UP || state == GestureDetector.DOUBLE_TAP)) {
+            down &= ~bit;
+            setBits(released, bit);
+        }
+    }
+
+    private static boolean isSwipe(int state) {
+        return state >= GestureDetector.SWIPE_UP && state <= GestureDetector.SWIPE_RIGHT;
+    }
+
+    private static void setBits(AtomicLong flags, long bits) {
+        long value;
+        do {
+            value = flags.get();
+        } while (!flags.compareAndSet(value, value | bits));
+    }
+
+    /**
+     * Take the edge flags collected since the previous tick, called by the game
+     * thread at the start of each tick.
+     */
+    public void beginTick() {
+        tickPressed = pressed.getAndSet(0);
+        tickReleased = released.getAndSet(0);
+        tickSwiped = swiped.getAndSet(0);
+    }
+
+    /**
+     * Release the fingers that are down, called by the detector when the gesture is
+     * cancelled or the detector is reset, so the game thread sees each press matched
+     * by a release. The queue and the edge flags are left to the game thread.
+     */
+    public void reset() {
+        if (down != 0) {
+            setBits(released, down);
+            down = 0;
+        }
+    }
+
+    public boolean wasPressed(int fingerIndex) {
+        return fingerIndex < 64 && (tickPressed & 1L << fingerIndex) != 0;
+    }
+
+    public boolean wasReleased(int fingerIndex) {
+        return fingerIndex < 64 && (tickReleased & 1L << fingerIndex) != 0;
+    }
+
+    public boolean wasSwiped(int fingerIndex) {
+        return fingerIndex < 64 && (tickSwiped & 1L << fingerIndex) != 0;
+    }
+
+    public long getPressedMask() {
+        return tickPressed;
+    }
+
+    public long getReleasedMask() {
+        return tickReleased;
+    }
+
+    public long getSwipedMask() {
+        return tickSwiped;
+    }
+
+    /**
+     * Remove the oldest event from the queue, the values can be taken with
+     * GestureEventQueue.getState(), getFingerIndex() and getTime().
+     *
+     * @return the event value, or GestureEventQueue.EMPTY if there are no events
+     */
+    public long poll() {
+        return queue.poll();
+    }
+
+    public GestureEventQueue getQueue() {
+        return queue;
+    }
+}
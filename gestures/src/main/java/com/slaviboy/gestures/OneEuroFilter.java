@@ -0,0 +1,129 @@
+package com.slaviboy.gestures;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * One Euro filter, that smooths noisy finger positions. It is a low pass filter, whose
+ * cutoff frequency depends on the speed of the finger - slow movements are smoothed more to
+ * remove the jitter, and fast movements less to reduce the lag. Only primitive values are kept,
+ * so filtering a value does not allocate.
+ * <p>
+ * See: Casiez, Roussel, Vogel - "1 Euro Filter: A Simple Speed-based Low-pass Filter for Noisy
+ * Input in Interactive Systems", CHI 2012.
+ */
+public class OneEuroFilter {
+
+    // public default constants
+    public static final double MIN_CUTOFF = 1.0;
+    public static final double BETA = 0.007;
+    public static final double DERIVATIVE_CUTOFF = 1.0;
+
+    private double minCutoff;                 // min cutoff frequency, used when the finger is slow (Hz)
+    private double beta;                      // how much the cutoff frequency increases with the speed
+    private double derivativeCutoff;          // cutoff frequency used for the speed (Hz)
+
+    private double valueLast;                 // previous filtered value
+    private double derivativeLast;            // previous filtered speed (units per second)
+    private long timeLast;                    // time of the previous value (ms)
+    private boolean initialized;              // if there is a previous value
+
+    public OneEuroFilter() {
+        this(MIN_CUTOFF, BETA, DERIVATIVE_CUTOFF);
+    }
+
+    public OneEuroFilter(double minCutoff, double beta, double derivativeCutoff) {
+        this.minCutoff = minCutoff;
+        this.beta = beta;
+        this.derivativeCutoff = derivativeCutoff;
+    }
+
+    /**
+     * Filter new value, using the previous filtered value and speed.
+     *
+     * @param value - the new raw value
+     * @param time  - time when the value is detected (ms)
+     * @return the filtered value
+     */
+    public double filter(double value, long time) {
+
+        if (!initialized) {
+            valueLast = value;
+            derivativeLast = 0;
+            timeLast = time;
+            initialized = true;
+            return value;
+        }
+
+        // samples with the same time, are treated as 1ms apart
+        double dt = Math.max(time - timeLast, 1) / 1000.0;
+        timeLast = time;
+
+        // filtered speed
+        double derivative = (value - valueLast) / dt;
+        derivativeLast = lowPass(derivative, derivativeLast, alpha(derivativeCutoff, dt));
+
+        // cutoff increases with the speed
+        double cutoff = minCutoff + beta * Math.abs(derivativeLast);
+        valueLast = lowPass(value, valueLast, alpha(cutoff, dt));
+        return valueLast;
+    }
+
+    private static double alpha(double cutoff, double dt) {
+        double tau = 1.0 / (2 * Math.PI * cutoff);
+        return 1.0 / (1.0 + tau / dt);
+    }
+
+    private static double lowPass(double value, double last, double alpha) {
+        return alpha * value + (1 - alpha) * last;
+    }
+
+    /**
+     * Reset the filter, so the next value is used as it is.
+     */
+    public void reset() {
+        initialized = false;
+    }
+
+    public double getMinCutoff() {
+        return minCutoff;
+    }
+
+    public void setMinCutoff(double minCutoff) {
+        this.minCutoff = minCutoff;
+    }
+
+    public double getBeta() {
+        return beta;
+    }
+
+    public void setBeta(double beta) {
+        this.beta = beta;
+    }
+
+    public double getDerivativeCutoff() {
+        return derivativeCutoff;
+    }
+
+    public void setDerivativeCutoff(double derivativeCutoff) {
+        this.derivativeCutoff = derivativeCutoff;
+    }
+}
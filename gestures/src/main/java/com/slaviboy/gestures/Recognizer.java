@@ -0,0 +1,38 @@
+package com.slaviboy.gestures;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Public interface for recognizers, that are chained in a RecognizerPipeline and receive
+ * the touch frame decoded once for all of them.
+ */
+public interface Recognizer {
+
+    /**
+     * Called for each touch event with the decoded frame. Recognizer should skip the
+     * pointers claimed by previous recognizers, and can claim pointers itself.
+     *
+     * @param frame - decoded touch event, reused for the following events
+     * @return true to consume the frame, so the following recognizers do not receive it
+     */
+    boolean onFrame(TouchFrame frame);
+}
@@ -0,0 +1,127 @@
+package com.slaviboy.gestures;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.util.Arrays;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Class that implements the OnTouchListener, and decodes each MotionEvent once into a reused
+ * TouchFrame, that is passed to an ordered chain of recognizers. The GestureDetector is a
+ * recognizer too, so it can be composed with custom recognizers and drawing consumers on the
+ * same view, without each of them reading the event again.
+ * <pre>
+ * RecognizerPipeline pipeline = new RecognizerPipeline();
+ * pipeline.addRecognizer(customRecognizer);
+ * pipeline.addRecognizer(detector);
+ * view.setOnTouchListener(pipeline);
+ * </pre>
+ */
+public class RecognizerPipeline implements View.OnTouchListener {
+
+    private Recognizer[] recognizers;        // recognizers in the order they receive the frame
+    private TouchFrame frame;                // frame reused for all events
+    private boolean consumeTouchEvents;      // whether to consume the touch event after handling
+
+    public RecognizerPipeline() {
+        this(true);
+    }
+
+    public RecognizerPipeline(boolean consumeTouchEvents) {
+        this.consumeTouchEvents = consumeTouchEvents;
+        recognizers = new Recognizer[0];
+        frame = new TouchFrame();
+    }
+
+    @Override
+    public boolean onTouch(View v, MotionEvent event) {
+        frame.decode(v, event);
+        dispatch(frame);
+        return consumeTouchEvents;
+    }
+
+    /**
+     * Pass already decoded frame to the recognizers in order, until one of them consumes it.
+     *
+     * @param frame - decoded touch event
+     * @return true if a recognizer consumed the frame
+     */
+    public boolean dispatch(TouchFrame frame) {
+        Recognizer[] recognizers = this.recognizers;
+        for (int i = 0; i < recognizers.length; i++) {
+            if (recognizers[i].onFrame(frame)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add recognizer at the end of the chain.
+     *
+     * @param recognizer - recognizer to add
+     */
+    public void addRecognizer(Recognizer recognizer) {
+        recognizers = Arrays.copyOf(recognizers, recognizers.length + 1);
+        recognizers[recognizers.length - 1] = recognizer;
+    }
+
+    public void removeRecognizer(Recognizer recognizer) {
+        for (int i = 0; i < recognizers.length; i++) {
+            if (recognizers[i] == recognizer) {
+                Recognizer[] result = new Recognizer[recognizers.length - 1];
+                System.arraycopy(recognizers, 0, result, 0, i);
+                System.arraycopy(recognizers, i + 1, result, i, recognizers.length - i - 1);
+                recognizers = result;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Set which extra axes are decoded from the events, should match the axes
+     * enabled in the recognizers, like GestureDetector.setAxes().
+     *
+     * @param axes - bitmask with Finger.AXIS_PRESSURE, AXIS_TOUCH_MAJOR, AXIS_ORIENTATION
+     */
+    public void setAxes(int axes) {
+        frame.setAxes(axes);
+    }
+
+    public int getAxes() {
+        return frame.getAxes();
+    }
+
+    public int getRecognizerCount() {
+        return recognizers.length;
+    }
+
+    public boolean isConsumeTouchEvents() {
+        return consumeTouchEvents;
+    }
+
+    public void setConsumeTouchEvents(boolean consumeTouchEvents) {
+        this.consumeTouchEvents = consumeTouchEvents;
+    }
+}
@@ -0,0 +1,267 @@
+package com.slaviboy.gestures;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Class that captures the path of a finger from -down to -up into a primitive float array,
+ * simplifying it while the points arrive. It uses sleeve fitting - from the last kept point
+ * (anchor) a wedge of directions is kept, such that all skipped points are within -tolerance
+ * from the line in that direction. Each new point narrows the wedge, and when it falls
+ * outside of it, the previous point is kept and becomes the new anchor. Points closer than
+ * -tolerance to the anchor are skipped directly (radial distance). Each point is handled in
+ * O(1) and the memory is bounded by the capacity - when it is reached, the current tolerance
+ * is doubled and the kept points are simplified again in place, so the whole stroke keeps
+ * the same shape with fewer points. The current tolerance is reset on each -down.
+ * <p>
+ * The stroke is exposed as read only view with getPointCount(), getX() and getY(), where the
+ * last point is the most recent finger position, even if it is not kept yet. The methods that
+ * change the points are package-private and called only by the GestureDetector.
+ */
+public class Stroke {
+
+    // public default constants
+    public static final int CAPACITY = 256;
+    public static final float TOLERANCE = 2;
+
+    private final float[] points;       // kept points as pairs x, y
+    private final int capacity;         // max number of kept points
+    private float tolerance;            // max distance of the skipped points from the simplified path (px)
+    private float toleranceCurrent;     // tolerance for the current stroke, raised each time the capacity is reached (px)
+    private int count;                  // number of kept points
+
+    // most recent point, that is not kept yet
+    private float pendingX;
+    private float pendingY;
+    private boolean pending;            // if there is a pending point
+
+    // wedge of allowed directions from the anchor (the last kept point)
+    private double wedgeCenter;         // center direction of the wedge (rad)
+    private double wedgeHalf;           // half of the wedge angle (rad)
+    private boolean wedgeSet;           // if the wedge is set from a point after the anchor
+
+    private boolean active;             // if the finger is down and points are captured
+
+    public Stroke() {
+        this(CAPACITY, TOLERANCE);
+    }
+
+    public Stroke(int capacity, float tolerance) {
+        this.capacity = Math.max(capacity, 3);
+        this.tolerance = tolerance;
+        this.toleranceCurrent = tolerance;
+        points = new float[this.capacity * 2];
+    }
+
+    /**
+     * Start new stroke from the -down position, the previous points are cleared.
+     *
+     * @param x - finger x coordinate
+     * @param y - finger y coordinate
+     */
+    void begin(float x, float y) {
+        toleranceCurrent = tolerance;
+        count = 0;
+        pending = false;
+        wedgeSet = false;
+        active = true;
+        keep(x, y);
+    }
+
+    /**
+     * Add next finger position to the stroke.
+     *
+     * @param x - finger x coordinate
+     * @param y - finger y coordinate
+     */
+    void add(float x, float y) {
+
+        if (!active) {
+            return;
+        }
+
+        float anchorX = points[(count - 1) * 2];
+        float anchorY = points[(count - 1) * 2 + 1];
+        double distance = Math.hypot(x - anchorX, y - anchorY);
+        if (distance <= toleranceCurrent) {
+            setPending(x, y);
+            return;
+        }
+
+        double direction = Math.atan2(y - anchorY, x - anchorX);
+        double half = Math.asin(toleranceCurrent / distance);
+        if (!wedgeSet) {
+            setWedge(direction, half);
+        } else {
+            double difference = normalize(direction - wedgeCenter);
+            if (Math.abs(difference) <= wedgeHalf) {
+
+                // intersect the wedge with the directions allowed by the new point
+                double low = Math.max(-wedgeHalf, difference - half);
+                double high = Math.min(wedgeHalf, difference + half);
+                setWedge(wedgeCenter + (low + high) / 2, (high - low) / 2);
+            } else {
+
+                // new point is outside the wedge, keep the previous one as new anchor
+                keep(pendingX, pendingY);
+                pending = false;
+                wedgeSet = false;
+                add(x, y);
+                return;
+            }
+        }
+        setPending(x, y);
+    }
+
+    /**
+     * End the stroke on -up, the last position is kept.
+     */
+    void end() {
+        if (pending) {
+            keep(pendingX, pendingY);
+            pending = false;
+        }
+        active = false;
+    }
+
+    private void setPending(float x, float y) {
+        pendingX = x;
+        pendingY = y;
+        pending = true;
+    }
+
+    private void setWedge(double center, double half) {
+        wedgeCenter = center;
+        wedgeHalf = half;
+        wedgeSet = true;
+    }
+
+    private void keep(float x, float y) {
+        while (count == capacity) {
+            simplify();
+        }
+        points[count * 2] = x;
+        points[count * 2 + 1] = y;
+        count++;
+    }
+
+    /**
+     * Double the current tolerance and simplify the kept points again in place. The points
+     * are read ahead of the written ones, because each point is written only after it is
+     * read. The pending point and the wedge are overwritten, so the caller must reset them.
+     */
+    private void simplify() {
+
+        int kept = count;
+        toleranceCurrent = toleranceCurrent > 0 ? toleranceCurrent * 2 : 1;
+        count = 1;
+        pending = false;
+        wedgeSet = false;
+        for (int i = 1; i < kept; i++) {
+            add(points[i * 2], points[i * 2 + 1]);
+        }
+        if (pending) {
+            points[count * 2] = pendingX;
+            points[count * 2 + 1] = pendingY;
+            count++;
+            pending = false;
+        }
+    }
+
+    private static double normalize(double angle) {
+        while (angle > Math.PI) {
+            angle -= 2 * Math.PI;
+        }
+        while (angle < -Math.PI) {
+            angle += 2 * Math.PI;
+        }
+        return angle;
+    }
+
+    /**
+     * Get the number of points, including the pending most recent position.
+     *
+     * @return
+     */
+    public int getPointCount() {
+        return pending ? count + 1 : count;
+    }
+
+    public float getX(int index) {
+        return index == count && pending ? pendingX : points[index * 2];
+    }
+
+    public float getY(int index) {
+        return index == count && pending ? pendingY : points[index * 2 + 1];
+    }
+
+    /**
+     * Copy the points as pairs x, y into the array.
+     *
+     * @param out - array with length at least 2 * getPointCount()
+     * @return the number of copied points
+     */
+    public int copyTo(float[] out) {
+        System.arraycopy(points, 0, out, 0, count * 2);
+        if (pending) {
+            out[count * 2] = pendingX;
+            out[count * 2 + 1] = pendingY;
+        }
+        return getPointCount();
+    }
+
+    /**
+     * Clear all points.
+     */
+    void clear() {
+        count = 0;
+        pending = false;
+        wedgeSet = false;
+        active = false;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public float getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Get the tolerance used for the current stroke, that is raised each time the capacity
+     * is reached.
+     *
+     * @return
+     */
+    public float getToleranceCurrent() {
+        return toleranceCurrent;
+    }
+
+    void setTolerance(float tolerance) {
+        this.tolerance = tolerance;
+        this.toleranceCurrent = tolerance;
+    }
+}
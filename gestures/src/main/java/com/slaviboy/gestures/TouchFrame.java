@@ -0,0 +1,285 @@
+package com.slaviboy.gestures;
+
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.util.Arrays;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Class that holds the values of a MotionEvent decoded once into primitive arrays - action,
+ * pointer ids, coordinates and the historical samples batched since the previous event. The
+ * same frame object is reused for all events, and the arrays grow only when an event has
+ * more pointers or historical samples than any event before it. The frame is passed to the
+ * recognizers in a RecognizerPipeline, so they do not call the MotionEvent getters again.
+ * <p>
+ * Recognizers can claim pointers, then the following recognizers in the pipeline skip them.
+ */
+public class TouchFrame {
+
+    private MotionEvent event;          // decoded event, valid only while the frame is dispatched
+    private View view;                  // view that received the event, null if it is not known
+    private int action;                 // masked action like MotionEvent.ACTION_DOWN, ACTION_MOVE...
+    private int actionIndex;            // pointer index for ACTION_POINTER_DOWN and ACTION_POINTER_UP
+    private long eventTime;             // time of the event (ms)
+
+    private int pointerCount;           // number of pointers
+    private int[] pointerIds;           // id for each pointer index
+    private float[] positionsX;         // x coordinate for each pointer index
+    private float[] positionsY;         // y coordinate for each pointer index
+
+    private int historySize;            // number of historical samples for each pointer
+    private int historyCapacity;        // historical samples that fit for each pointer in the arrays
+    private long[] historicalTimes;     // time for each historical sample (ms)
+    private float[] historicalX;        // x coordinates [pointerIndex * historyCapacity + sample]
+    private float[] historicalY;        // y coordinates [pointerIndex * historyCapacity + sample]
+
+    private long claimedIds;            // bitmask with the pointer ids claimed by a recognizer
+
+    private int axes;                   // bitmask with the decoded Finger.AXIS_* values, 0 - only positions
+    private float[] pressures;          // pressure for each pointer index
+    private float[] touchMajors;        // touch major length for each pointer index
+    private float[] orientations;       // orientation for each pointer index (rad)
+
+    public TouchFrame() {
+        this(2, 4);
+    }
+
+    /**
+     * @param pointers - number of pointers that fit, before the arrays grow
+     * @param history  - number of historical samples for each pointer that fit, before the arrays grow
+     */
+    public TouchFrame(int pointers, int history) {
+        pointerIds = new int[pointers];
+        positionsX = new float[pointers];
+        positionsY = new float[pointers];
+        historyCapacity = history;
+        historicalTimes = new long[history];
+        historicalX = new float[pointers * history];
+        historicalY = new float[pointers * history];
+        pressures = new float[pointers];
+        touchMajors = new float[pointers];
+        orientations = new float[pointers];
+    }
+
+    /**
+     * Decode the event values into the frame, and clear the claimed pointers.
+     *
+     * @param event - event from the onTouch method
+     */
+    public void decode(MotionEvent event) {
+        decode(null, event);
+    }
+
+    /**
+     * Same as decode(MotionEvent), and keep the view that received the event, so the
+     * recognizers can pass it to the consumers that need it.
+     *
+     * @param view  - view from the onTouch method
+     * @param event - event from the onTouch method
+     */
+    public void decode(View view, MotionEvent event) {
+
+        this.view = view;
+        this.event = event;
+        action = event.getActionMasked();
+        actionIndex = event.getActionIndex();
+        eventTime = event.getEventTime();
+        claimedIds = 0;
+
+        pointerCount = event.getPointerCount();
+        historySize = event.getHistorySize();
+        ensureCapacity(pointerCount, historySize);
+
+        for (int h = 0; h < historySize; h++) {
+            historicalTimes[h] = event.getHistoricalEventTime(h);
+        }
+        for (int p = 0; p < pointerCount; p++) {
+            pointerIds[p] = event.getPointerId(p);
+            positionsX[p] = event.getX(p);
+            positionsY[p] = event.getY(p);
+            if (axes != 0) {
+                pressures[p] = (axes & Finger.AXIS_PRESSURE) != 0 ? event.getPressure(p) : 0;
+                touchMajors[p] = (axes & Finger.AXIS_TOUCH_MAJOR) != 0 ? event.getTouchMajor(p) : 0;
+                orientations[p] = (axes & Finger.AXIS_ORIENTATION) != 0 ? event.getOrientation(p) : 0;
+            }
+            for (int h = 0; h < historySize; h++) {
+                historicalX[p * historyCapacity + h] = event.getHistoricalX(p, h);
+                historicalY[p * historyCapacity + h] = event.getHistoricalY(p, h);
+            }
+        }
+    }
+
+    private void ensureCapacity(int pointers, int history) {
+
+        if (pointers > pointerIds.length) {
+            pointerIds = Arrays.copyOf(pointerIds, pointers);
+            positionsX = Arrays.copyOf(positionsX, pointers);
+            positionsY = Arrays.copyOf(positionsY, pointers);
+            pressures = Arrays.copyOf(pressures, pointers);
+            touchMajors = Arrays.copyOf(touchMajors, pointers);
+            orientations = Arrays.copyOf(orientations, pointers);
+        }
+        if (history > historyCapacity) {
+            historyCapacity = history;
+            historicalTimes = new long[history];
+        }
+        if (pointerIds.length * historyCapacity > historicalX.length) {
+            historicalX = new float[pointerIds.length * historyCapacity];
+            historicalY = new float[pointerIds.length * historyCapacity];
+        }
+    }
+
+    /**
+     * Get the decoded event, for consumers that still need it. It is valid only
+     * while the frame is dispatched.
+     *
+     * @return
+     */
+    public MotionEvent getMotionEvent() {
+        return event;
+    }
+
+    /**
+     * Get the view that received the decoded event, valid only while the frame is dispatched.
+     *
+     * @return the view, or null if the frame is decoded without it
+     */
+    public View getView() {
+        return view;
+    }
+
+    public int getAction() {
+        return action;
+    }
+
+    public int getActionIndex() {
+        return actionIndex;
+    }
+
+    /**
+     * Get the pointer id for the pointer that is pressed down or lift up.
+     *
+     * @return
+     */
+    public int getActionPointerId() {
+        return pointerIds[actionIndex];
+    }
+
+    public long getEventTime() {
+        return eventTime;
+    }
+
+    public int getPointerCount() {
+        return pointerCount;
+    }
+
+    public int getPointerId(int pointerIndex) {
+        return pointerIds[pointerIndex];
+    }
+
+    /**
+     * Get the pointer index for a pointer id.
+     *
+     * @param pointerId - pointer id
+     * @return the pointer index, or -1 if the pointer is not in the frame
+     */
+    public int findPointerIndex(int pointerId) {
+        for (int i = 0; i < pointerCount; i++) {
+            if (pointerIds[i] == pointerId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public float getX(int pointerIndex) {
+        return positionsX[pointerIndex];
+    }
+
+    public float getY(int pointerIndex) {
+        return positionsY[pointerIndex];
+    }
+
+    public float getPressure(int pointerIndex) {
+        return pressures[pointerIndex];
+    }
+
+    public float getTouchMajor(int pointerIndex) {
+        return touchMajors[pointerIndex];
+    }
+
+    public float getOrientation(int pointerIndex) {
+        return orientations[pointerIndex];
+    }
+
+    /**
+     * Set which extra axes are decoded from the events, the axes that are
+     * not set are left as 0, so no time is spent reading them.
+     *
+     * @param axes - bitmask with Finger.AXIS_PRESSURE, AXIS_TOUCH_MAJOR, AXIS_ORIENTATION
+     */
+    public void setAxes(int axes) {
+        this.axes = axes;
+    }
+
+    public int getAxes() {
+        return axes;
+    }
+
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    public long getHistoricalTime(int sample) {
+        return historicalTimes[sample];
+    }
+
+    public float getHistoricalX(int pointerIndex, int sample) {
+        return historicalX[pointerIndex * historyCapacity + sample];
+    }
+
+    public float getHistoricalY(int pointerIndex, int sample) {
+        return historicalY[pointerIndex * historyCapacity + sample];
+    }
+
+    /**
+     * Claim a pointer, so the following recognizers in the pipeline skip it.
+     * Pointer ids above 63 cannot be claimed.
+     *
+     * @param pointerId - pointer id
+     */
+    public void claim(int pointerId) {
+        if (pointerId < 64) {
+            claimedIds |= 1L << pointerId;
+        }
+    }
+
+    public boolean isClaimed(int pointerId) {
+        return pointerId < 64 && (claimedIds & 1L << pointerId) != 0;
+    }
+
+    public long getClaimedIds() {
+        return claimedIds;
+    }
+}
@@ -0,0 +1,237 @@
+package com.slaviboy.gestures;
+
+import android.graphics.PointF;
+
+import java.util.Arrays;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Class that resamples the finger positions to the frame times. Touch panels with high
+ * report rate send multiple samples for each frame, with uneven timing relative to the frame.
+ * Instead of processing each of them, the samples are kept in a small FingerHistory for each
+ * finger, and once for each frame, the position is interpolated at the frame time minus a
+ * small latency. If the newest sample is older than that time, the position is extrapolated
+ * from the last two samples, but not more than -maxExtrapolation into the future. That way
+ * each finger gets exactly one consistent position for each frame.
+ * <p>
+ * The frame time comes from the injected FrameClock, like ChoreographerFrameClock.
+ */
+public class TouchResampler {
+
+    // public default constants
+    public static final int SAMPLES = 4;                 // number of kept samples for each finger
+    public static final int LATENCY = 5;                 // how much before the frame time positions are resampled (ms)
+    public static final int MAX_EXTRAPOLATION = 8;       // max time after the newest sample, for extrapolation (ms)
+    public static final long SAME_FRAME = -1;            // returned by nextFrame(), when the frame is already resampled
+
+    private FrameClock frameClock;      // clock with the time of the current frame
+    private int latency;                // how much before the frame time positions are resampled (ms)
+    private int maxExtrapolation;       // max time after the newest sample, for extrapolation (ms)
+    private long frameTime;             // time of the last resampled frame (ms)
+
+    // state for each finger
+    private FingerHistory[] histories;  // latest samples for each finger
+    private long[] resampledTimes;      // time of the last resampled position for each finger (ms)
+    private boolean[] pending;          // if there are samples added after the last resampled position, for each finger
+
+    public TouchResampler(FrameClock frameClock, int numberOfFingers) {
+        this.frameClock = frameClock;
+        this.latency = LATENCY;
+        this.maxExtrapolation = MAX_EXTRAPOLATION;
+        this.frameTime = SAME_FRAME;
+        setNumberOfFingers(numberOfFingers);
+    }
+
+    /**
+     * Change the number of fingers, the samples of all fingers are removed. The histories
+     * of the fingers that are kept are reused, and the latency, the max extrapolation and
+     * the frame clock are not changed.
+     *
+     * @param numberOfFingers - number of fingers
+     */
+    public void setNumberOfFingers(int numberOfFingers) {
+        FingerHistory[] previous = histories;
+        histories = new FingerHistory[numberOfFingers];
+        for (int i = 0; i < numberOfFingers; i++) {
+            histories[i] = previous != null && i < previous.length ? previous[i] : new FingerHistory(SAMPLES);
+            histories[i].clear();
+        }
+        resampledTimes = new long[numberOfFingers];
+        pending = new boolean[numberOfFingers];
+        Arrays.fill(resampledTimes, Long.MIN_VALUE);
+    }
+
+    public int getNumberOfFingers() {
+        return histories.length;
+    }
+
+    /**
+     * Remove the samples for a finger, called on -down and -up.
+     *
+     * @param finger - finger index
+     */
+    public void clear(int finger) {
+        histories[finger].clear();
+        resampledTimes[finger] = Long.MIN_VALUE;
+        pending[finger] = false;
+    }
+
+    /**
+     * Start new stroke for a finger with its -down sample, that is not pending.
+     *
+     * @param finger - finger index
+     * @param time   - time of the -down event (ms)
+     * @param x      - finger x coordinate
+     * @param y      - finger y coordinate
+     */
+    public void begin(int finger, long time, float x, float y) {
+        clear(finger);
+        add(finger, time, x, y);
+        pending[finger] = false;
+    }
+
+    /**
+     * Add sample for a finger, samples must be added in time order, so sample older than
+     * the newest one gets the time of the newest one.
+     *
+     * @param finger - finger index
+     * @param time   - time of the sample (ms)
+     * @param x      - finger x coordinate
+     * @param y      - finger y coordinate
+     */
+    public void add(int finger, long time, float x, float y) {
+        histories[finger].add(time, x, y);
+        pending[finger] = true;
+    }
+
+    /**
+     * Add the historical samples and the current sample for a pointer from the frame.
+     *
+     * @param finger       - finger index
+     * @param frame        - decoded touch event
+     * @param pointerIndex - pointer index in the frame
+     */
+    public void add(int finger, TouchFrame frame, int pointerIndex) {
+        for (int h = 0; h < frame.getHistorySize(); h++) {
+            add(finger, frame.getHistoricalTime(h),
+                    frame.getHistoricalX(pointerIndex, h), frame.getHistoricalY(pointerIndex, h));
+        }
+        add(finger, frame.getEventTime(), frame.getX(pointerIndex), frame.getY(pointerIndex));
+    }
+
+    /**
+     * Check the frame clock, and get the time at which the positions should be resampled
+     * for the current frame. It is returned only once for each frame.
+     *
+     * @return the resample time (ms), or SAME_FRAME if the current frame is already resampled
+     */
+    public long nextFrame() {
+        long time = frameClock.getFrameTime();
+        if (time == frameTime) {
+            return SAME_FRAME;
+        }
+        frameTime = time;
+        return time - latency;
+    }
+
+    /**
+     * Get the finger position at the given time, interpolated between the two nearest samples,
+     * or extrapolated from the two newest samples. The time is limited to -maxExtrapolation
+     * after the newest sample, and to the last resampled time and the oldest sample time, so
+     * the resampled positions never go back in time.
+     *
+     * @param finger   - finger index
+     * @param time     - time at which the position is needed (ms)
+     * @param position - point where the position is saved
+     * @return false if there are no samples for the finger, and the position is not set
+     */
+    public boolean resample(int finger, long time, PointF position) {
+
+        FingerHistory history = histories[finger];
+        int count = history.getSampleCount();
+        if (count == 0) {
+            return false;
+        }
+
+        time = Math.min(time, history.getNewestTime() + maxExtrapolation);
+        time = Math.max(time, Math.max(resampledTimes[finger], history.getOldestTime()));
+        resampledTimes[finger] = time;
+        pending[finger] = false;
+
+        // find the first sample not older than the time, or the newest sample for extrapolation
+        int sample = Math.min(history.search(time), count - 1);
+
+        if (sample == 0) {
+            position.set(history.getX(0), history.getY(0));
+            return true;
+        }
+
+        long time0 = history.getTime(sample - 1);
+        long duration = history.getTime(sample) - time0;
+        float t = duration == 0 ? 1 : (float) (time - time0) / duration;
+        float x0 = history.getX(sample - 1);
+        float y0 = history.getY(sample - 1);
+        position.set(x0 + (history.getX(sample) - x0) * t, y0 + (history.getY(sample) - y0) * t);
+        return true;
+    }
+
+    /**
+     * Get the time of the last resampled position for a finger.
+     *
+     * @param finger - finger index
+     * @return time (ms)
+     */
+    public long getResampledTime(int finger) {
+        return resampledTimes[finger];
+    }
+
+    /**
+     * Check if there are samples for a finger, that are added after its last resampled position.
+     *
+     * @param finger - finger index
+     * @return true if there are pending samples
+     */
+    public boolean isPending(int finger) {
+        return pending[finger];
+    }
+
+    public FrameClock getFrameClock() {
+        return frameClock;
+    }
+
+    public int getLatency() {
+        return latency;
+    }
+
+    public void setLatency(int latency) {
+        this.latency = latency;
+    }
+
+    public int getMaxExtrapolation() {
+        return maxExtrapolation;
+    }
+
+    public void setMaxExtrapolation(int maxExtrapolation) {
+        this.maxExtrapolation = maxExtrapolation;
+    }
+}
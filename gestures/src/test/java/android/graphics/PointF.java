@@ -0,0 +1,24 @@
+package android.graphics;
+
+/**
+ * Minimal PointF for the local unit tests, it is placed before the android.jar stub on the
+ * test classpath, whose methods throw, so the finger classes can run on the JVM.
+ */
+public class PointF {
+
+    public float x;
+    public float y;
+
+    public PointF() {
+    }
+
+    public PointF(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public final void set(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+}
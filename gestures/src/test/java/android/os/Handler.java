@@ -0,0 +1,66 @@
+package android.os;
+
+import java.util.ArrayList;
+
+/**
+ * Minimal Handler for the local unit tests. The callbacks of all handlers are kept in one
+ * list, and run in time order by runUntil(), that also moves the SystemClock uptime.
+ */
+public class Handler {
+
+    private static final ArrayList<Runnable> runnables = new ArrayList<>();
+    private static final ArrayList<Long> times = new ArrayList<>();
+
+    public final boolean post(Runnable runnable) {
+        return postDelayed(runnable, 0);
+    }
+
+    public final boolean postDelayed(Runnable runnable, long delayMillis) {
+
+        // keep the callbacks sorted by time, and in posting order for the same time
+        long time = SystemClock.uptimeMillis() + delayMillis;
+        int index = times.size();
+        while (index > 0 && times.get(index - 1) > time) {
+            index--;
+        }
+        runnables.add(index, runnable);
+        times.add(index, time);
+        return true;
+    }
+
+    public final void removeCallbacks(Runnable runnable) {
+        for (int i = runnables.size() - 1; i >= 0; i--) {
+            if (runnables.get(i) == runnable) {
+                runnables.remove(i);
+                times.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Run the callbacks due until the given time, moving the uptime to the time of each
+     * callback and finally to the given time.
+     */
+    public static void runUntil(long time) {
+        while (!runnables.isEmpty() && times.get(0) <= time) {
+            SystemClock.setUptimeMillis(times.remove(0));
+            runnables.remove(0).run();
+        }
+        SystemClock.setUptimeMillis(time);
+    }
+
+    /**
+     * Get the number of callbacks that are not run yet.
+     */
+    public static int getPendingCount() {
+        return runnables.size();
+    }
+
+    /**
+     * Remove the callbacks of all handlers, called before each test.
+     */
+    public static void clearAll() {
+        runnables.clear();
+        times.clear();
+    }
+}
@@ -0,0 +1,23 @@
+package android.os;
+
+/**
+ * Minimal SystemClock for the local unit tests, the uptime is set by the tests.
+ */
+public final class SystemClock {
+
+    private static long uptime;
+
+    private SystemClock() {
+    }
+
+    public static long uptimeMillis() {
+        return uptime;
+    }
+
+    /**
+     * Set the uptime returned by uptimeMillis(), used only by the tests.
+     */
+    public static void setUptimeMillis(long uptime) {
+        SystemClock.uptime = uptime;
+    }
+}
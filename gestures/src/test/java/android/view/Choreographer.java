@@ -0,0 +1,27 @@
+package android.view;
+
+/**
+ * Minimal Choreographer for the local unit tests, the frames are run by the tests by
+ * calling doFrame() of the frame callback.
+ */
+public final class Choreographer {
+
+    private static final Choreographer instance = new Choreographer();
+
+    private Choreographer() {
+    }
+
+    public static Choreographer getInstance() {
+        return instance;
+    }
+
+    public void postFrameCallback(FrameCallback callback) {
+    }
+
+    public void removeFrameCallback(FrameCallback callback) {
+    }
+
+    public interface FrameCallback {
+        void doFrame(long frameTimeNanos);
+    }
+}
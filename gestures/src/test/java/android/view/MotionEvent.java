@@ -0,0 +1,113 @@
+package android.view;
+
+/**
+ * Minimal MotionEvent for the local unit tests, with the values used by TouchFrame. The
+ * events are created with obtain(), and have no historical samples.
+ */
+public final class MotionEvent {
+
+    public static final int ACTION_MASK = 0xff;
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+    public static final int ACTION_POINTER_DOWN = 5;
+    public static final int ACTION_POINTER_UP = 6;
+    public static final int ACTION_POINTER_INDEX_MASK = 0xff00;
+    public static final int ACTION_POINTER_INDEX_SHIFT = 8;
+
+    private int action;
+    private long eventTime;
+    private int[] pointerIds;
+    private float[] positionsX;
+    private float[] positionsY;
+
+    private MotionEvent() {
+    }
+
+    /**
+     * Create event, the pointer index for ACTION_POINTER_DOWN and ACTION_POINTER_UP is
+     * set in the action with ACTION_POINTER_INDEX_SHIFT, as in the real events.
+     */
+    public static MotionEvent obtain(long eventTime, int action, int[] pointerIds,
+                                     float[] positionsX, float[] positionsY) {
+        MotionEvent event = new MotionEvent();
+        event.eventTime = eventTime;
+        event.action = action;
+        event.pointerIds = pointerIds.clone();
+        event.positionsX = positionsX.clone();
+        event.positionsY = positionsY.clone();
+        return event;
+    }
+
+    public int getAction() {
+        return action;
+    }
+
+    public int getActionMasked() {
+        return action & ACTION_MASK;
+    }
+
+    public int getActionIndex() {
+        return (action & ACTION_POINTER_INDEX_MASK) >> ACTION_POINTER_INDEX_SHIFT;
+    }
+
+    public long getEventTime() {
+        return eventTime;
+    }
+
+    public int getPointerCount() {
+        return pointerIds.length;
+    }
+
+    public int getPointerId(int pointerIndex) {
+        return pointerIds[pointerIndex];
+    }
+
+    public float getX() {
+        return positionsX[0];
+    }
+
+    public float getY() {
+        return positionsY[0];
+    }
+
+    public float getX(int pointerIndex) {
+        return positionsX[pointerIndex];
+    }
+
+    public float getY(int pointerIndex) {
+        return positionsY[pointerIndex];
+    }
+
+    public float getPressure(int pointerIndex) {
+        return 1;
+    }
+
+    public float getTouchMajor(int pointerIndex) {
+        return 0;
+    }
+
+    public float getOrientation(int pointerIndex) {
+        return 0;
+    }
+
+    public int getHistorySize() {
+        return 0;
+    }
+
+    public long getHistoricalEventTime(int pos) {
+        throw new IndexOutOfBoundsException();
+    }
+
+    public float getHistoricalX(int pointerIndex, int pos) {
+        throw new IndexOutOfBoundsException();
+    }
+
+    public float getHistoricalY(int pointerIndex, int pos) {
+        throw new IndexOutOfBoundsException();
+    }
+
+    public void recycle() {
+    }
+}
@@ -0,0 +1,86 @@
+package com.slaviboy.gestures;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the ChoreographerFrameClock callbacks, with the frames run by the tests.
+ */
+public class ChoreographerFrameClockTest {
+
+    private ChoreographerFrameClock frameClock;
+    private StringBuilder runs;
+
+    @Before
+    public void setUp() {
+        frameClock = new ChoreographerFrameClock();
+        runs = new StringBuilder();
+    }
+
+    private Runnable callback(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                runs.append(name);
+            }
+        };
+    }
+
+    @Test
+    public void doFrame_runsEachCallbackOnce() {
+        Runnable a = callback("a");
+        frameClock.postFrameCallback(a);
+        frameClock.postFrameCallback(callback("b"));
+        frameClock.postFrameCallback(a);
+
+        frameClock.doFrame(16000000);
+        assertEquals("ab", runs.toString());
+        frameClock.doFrame(32000000);
+        assertEquals("ab", runs.toString());
+    }
+
+    @Test
+    public void removeWhileRunning_skipsRemovedCallback() {
+        final Runnable b = callback("b");
+        final Runnable c = callback("c");
+        frameClock.postFrameCallback(new Runnable() {
+            @Override
+            public void run() {
+                runs.append("a");
+                frameClock.removeFrameCallback(b);
+                frameClock.removeFrameCallback(c);
+            }
+        });
+        frameClock.postFrameCallback(b);
+        frameClock.postFrameCallback(c);
+        frameClock.postFrameCallback(callback("d"));
+
+        frameClock.doFrame(16000000);
+        assertEquals("ad", runs.toString());
+        frameClock.doFrame(32000000);
+        assertEquals("ad", runs.toString());
+    }
+
+    @Test
+    public void postWhileRunning_runsOnNextFrameOnlyIfNotTaken() {
+        final Runnable b = callback("b");
+        frameClock.postFrameCallback(new Runnable() {
+            @Override
+            public void run() {
+                runs.append("a");
+                frameClock.postFrameCallback(b);
+                frameClock.postFrameCallback(this);
+            }
+        });
+        frameClock.postFrameCallback(b);
+
+        frameClock.doFrame(16000000);
+        assertEquals("ab", runs.toString());
+        frameClock.doFrame(32000000);
+        assertEquals("aba", runs.toString());
+        frameClock.doFrame(48000000);
+        assertEquals("ababa", runs.toString());
+    }
+}
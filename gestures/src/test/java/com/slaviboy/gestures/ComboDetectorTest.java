@@ -0,0 +1,200 @@
+package com.slaviboy.gestures;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the ComboDetector automatons.
+ */
+public class ComboDetectorTest {
+
+    private ComboDetector detector;
+    private ArrayList<Integer> detected;
+
+    @Before
+    public void setUp() {
+        detector = new ComboDetector(2);
+        detected = new ArrayList<>();
+        detector.setOnComboListener(new ComboDetector.OnComboListener() {
+            @Override
+            public void onCombo(int comboId) {
+                detected.add(comboId);
+            }
+        });
+    }
+
+    private void feed(int fingerIndex, long time, int... states) {
+        for (int state : states) {
+            detector.onTransition(fingerIndex, state, time);
+            time += 10;
+        }
+    }
+
+    @Test
+    public void swipeCombo_ignoresUnusedStates() {
+        int swipes = detector.addCombo(new int[]{GestureDetector.SWIPE_UP, GestureDetector.SWIPE_RIGHT}, 300);
+        detector.compile();
+
+        feed(0, 0, GestureDetector.DOWN, GestureDetector.SWIPE_UP, GestureDetector.UP,
+                GestureDetector.DOWN, GestureDetector.SWIPE_RIGHT);
+        assertEquals(1, detected.size());
+        assertEquals(swipes, (int) detected.get(0));
+    }
+
+    @Test
+    public void otherCombo_doesNotBreakSwipeCombo() {
+        int swipes = detector.addCombo(new int[]{GestureDetector.SWIPE_UP, GestureDetector.SWIPE_RIGHT}, 300);
+        int doubleTap = detector.addCombo(new int[]{GestureDetector.DOUBLE_TAP, GestureDetector.UP}, 300);
+        detector.compile();
+
+        // UP and DOWN are used by the double tap combo, but not by the swipe combo
+        feed(0, 0, GestureDetector.DOWN, GestureDetector.SWIPE_UP, GestureDetector.UP,
+                GestureDetector.DOWN, GestureDetector.SWIPE_RIGHT);
+        assertEquals(1, detected.size());
+        assertEquals(swipes, (int) detected.get(0));
+
+        detected.clear();
+        feed(0, 100, GestureDetector.DOWN, GestureDetector.UP, GestureDetector.DOWN,
+                GestureDetector.DOUBLE_TAP, GestureDetector.UP);
+        assertEquals(1, detected.size());
+        assertEquals(doubleTap, (int) detected.get(0));
+    }
+
+    @Test
+    public void usedState_breaksSequence() {
+        detector.addCombo(new int[]{GestureDetector.SWIPE_UP, GestureDetector.SWIPE_RIGHT, GestureDetector.SWIPE_UP}, 300);
+        detector.compile();
+
+        feed(0, 0, GestureDetector.SWIPE_UP, GestureDetector.SWIPE_RIGHT, GestureDetector.SWIPE_RIGHT,
+                GestureDetector.SWIPE_UP);
+        assertEquals(0, detected.size());
+
+        feed(0, 100, GestureDetector.SWIPE_RIGHT, GestureDetector.SWIPE_UP);
+        assertEquals(1, detected.size());
+    }
+
+    @Test
+    public void slowSteps_areNotDetected() {
+        detector.addCombo(new int[]{GestureDetector.SWIPE_UP, GestureDetector.SWIPE_RIGHT}, 300);
+        detector.compile();
+
+        detector.onTransition(0, GestureDetector.SWIPE_UP, 0);
+        detector.onTransition(0, GestureDetector.SWIPE_RIGHT, 301);
+        assertEquals(0, detected.size());
+    }
+
+    @Test
+    public void fingerCombo_matchesOnlyGivenFingers() {
+        int id = detector.addCombo(new int[]{0, 1},
+                new int[]{GestureDetector.HOLD_DOWN, GestureDetector.DOUBLE_TAP}, 500);
+        detector.compile();
+
+        detector.onTransition(1, GestureDetector.HOLD_DOWN, 0);
+        detector.onTransition(0, GestureDetector.DOUBLE_TAP, 10);
+        assertEquals(0, detected.size());
+
+        detector.onTransition(0, GestureDetector.HOLD_DOWN, 20);
+        detector.onTransition(1, GestureDetector.DOUBLE_TAP, 30);
+        assertEquals(1, detected.size());
+        assertEquals(id, (int) detected.get(0));
+    }
+
+    @Test
+    public void anyFingerCombo_withManyFingers_compiles() {
+        detector = new ComboDetector(10);
+        detector.setOnComboListener(new ComboDetector.OnComboListener() {
+            @Override
+            public void onCombo(int comboId) {
+                detected.add(comboId);
+            }
+        });
+        detector.addCombo(new int[]{GestureDetector.SWIPE_UP, GestureDetector.SWIPE_DOWN, GestureDetector.SWIPE_LEFT,
+                GestureDetector.SWIPE_RIGHT, GestureDetector.DOUBLE_TAP}, 300);
+        detector.compile();
+
+        detector.onTransition(3, GestureDetector.SWIPE_UP, 0);
+        detector.onTransition(7, GestureDetector.SWIPE_DOWN, 10);
+        detector.onTransition(0, GestureDetector.SWIPE_LEFT, 20);
+        detector.onTransition(9, GestureDetector.SWIPE_RIGHT, 30);
+        detector.onTransition(1, GestureDetector.DOUBLE_TAP, 40);
+        assertEquals(1, detected.size());
+    }
+
+    @Test
+    public void mixedCombo_withManyFingers_matches() {
+        detector = new ComboDetector(10);
+        detector.setOnComboListener(new ComboDetector.OnComboListener() {
+            @Override
+            public void onCombo(int comboId) {
+                detected.add(comboId);
+            }
+        });
+        int any = ComboDetector.ANY_FINGER;
+        detector.addCombo(new int[]{0, any, any, any, any}, new int[]{GestureDetector.SWIPE_UP,
+                GestureDetector.SWIPE_DOWN, GestureDetector.SWIPE_LEFT, GestureDetector.SWIPE_RIGHT,
+                GestureDetector.DOUBLE_TAP}, 300);
+        detector.compile();
+
+        detector.onTransition(0, GestureDetector.SWIPE_UP, 0);
+        detector.onTransition(7, GestureDetector.SWIPE_DOWN, 10);
+        detector.onTransition(9, GestureDetector.SWIPE_LEFT, 20);
+        detector.onTransition(3, GestureDetector.SWIPE_RIGHT, 30);
+        detector.onTransition(5, GestureDetector.DOUBLE_TAP, 40);
+        assertEquals(1, detected.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void comboOverStepLimit_throws() {
+        detector.addCombo(new int[ComboDetector.MAX_STEPS + 1], 300);
+    }
+
+    @Test
+    public void overlappingCombos_matchIndependently() {
+        int swipes = detector.addCombo(new int[]{GestureDetector.SWIPE_UP, GestureDetector.SWIPE_RIGHT}, 300);
+        int hold = detector.addCombo(new int[]{GestureDetector.DOWN, GestureDetector.HOLD_DOWN}, 300);
+        detector.compile();
+
+        // DOWN starts the hold combo, but must not reset the swipe combo
+        feed(0, 0, GestureDetector.DOWN, GestureDetector.SWIPE_UP, GestureDetector.UP,
+                GestureDetector.DOWN, GestureDetector.SWIPE_RIGHT, GestureDetector.UP);
+        assertEquals(1, detected.size());
+        assertEquals(swipes, (int) detected.get(0));
+
+        detected.clear();
+        feed(0, 100, GestureDetector.SWIPE_UP, GestureDetector.DOWN, GestureDetector.HOLD_DOWN,
+                GestureDetector.SWIPE_RIGHT);
+        assertEquals(2, detected.size());
+        assertEquals(hold, (int) detected.get(0));
+        assertEquals(swipes, (int) detected.get(1));
+    }
+
+    @Test
+    public void stateChange_usesEventTime() {
+        detector.addCombo(new int[]{GestureDetector.DOWN, GestureDetector.SWIPE_RIGHT}, 300);
+        detector.compile();
+
+        // steps dispatched together, but made 500ms apart
+        Finger[] fingers = {new Finger()};
+        swipe(fingers, 1000, 1500);
+        assertEquals(0, detected.size());
+
+        swipe(fingers, 2000, 2200);
+        assertEquals(1, detected.size());
+    }
+
+    private void swipe(Finger[] fingers, long timeDown, long timeUp) {
+        fingers[0].setInitial(0, 0, timeDown);
+        fingers[0].setStateCurrent(GestureDetector.DOWN);
+        detector.onStateChange(fingers, 0);
+
+        fingers[0].update(100, 0, timeUp);
+        fingers[0].setTracking(false);
+        fingers[0].setStateLast(GestureDetector.DOWN);
+        fingers[0].setStateCurrent(GestureDetector.SWIPE_RIGHT);
+        detector.onStateChange(fingers, 0);
+    }
+}
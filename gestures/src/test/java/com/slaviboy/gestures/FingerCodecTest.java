@@ -0,0 +1,175 @@
+package com.slaviboy.gestures;
+
+import android.graphics.PointF;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the FingerCodec, the frames are sent over a loopback socket with
+ * a length prefix, the same way they are streamed to other devices.
+ */
+public class FingerCodecTest {
+
+    private static final float DELTA = 1f / FingerCodec.POSITION_SCALE;
+
+    private ServerSocket server;
+    private Socket client;
+    private Socket accepted;
+    private DataOutputStream output;
+    private DataInputStream input;
+    private ByteBuffer buffer;
+
+    private FingerCodec encoder;
+    private FingerCodec decoder;
+    private Finger[] senders;
+    private Finger[] receivers;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        client = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort());
+        accepted = server.accept();
+        output = new DataOutputStream(client.getOutputStream());
+        input = new DataInputStream(accepted.getInputStream());
+        buffer = ByteBuffer.allocate(1024);
+
+        encoder = new FingerCodec(2);
+        decoder = new FingerCodec(2);
+        senders = new Finger[]{new Finger(), new Finger()};
+        receivers = new Finger[]{new Finger(), new Finger()};
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+        accepted.close();
+        server.close();
+    }
+
+    /**
+     * Encode the sender fingers, send the frame over the socket and decode it into the
+     * receiver fingers.
+     */
+    private void send() throws IOException {
+        buffer.clear();
+        encoder.encode(senders, buffer);
+        output.writeShort(buffer.position());
+        output.write(buffer.array(), 0, buffer.position());
+        output.flush();
+
+        byte[] frame = new byte[input.readUnsignedShort()];
+        input.readFully(frame);
+        decoder.decode(ByteBuffer.wrap(frame), receivers);
+    }
+
+    private void assertRestored(int i) {
+        Finger sender = senders[i];
+        Finger receiver = receivers[i];
+        assertEquals(sender.getStateCurrent(), receiver.getStateCurrent());
+        assertEquals(sender.isTracking(), receiver.isTracking());
+        assertEquals(sender.getTimeInitial(), receiver.getTimeInitial());
+        assertEquals(sender.getTimeCurrent(), receiver.getTimeCurrent());
+        assertEquals(sender.getPositionInitial().x, receiver.getPositionInitial().x, DELTA);
+        assertEquals(sender.getPositionInitial().y, receiver.getPositionInitial().y, DELTA);
+        assertEquals(sender.getPositionCurrent().x, receiver.getPositionCurrent().x, DELTA);
+        assertEquals(sender.getPositionCurrent().y, receiver.getPositionCurrent().y, DELTA);
+    }
+
+    @Test
+    public void downMoveUp_isRestored() throws IOException {
+        senders[0].setInitial(10.3f, 20.6f, 1000);
+        senders[0].setStateCurrent(GestureDetector.DOWN);
+        send();
+        assertRestored(0);
+        assertRestored(1);
+
+        senders[0].update(60.1f, 22.4f, 1016);
+        senders[0].setStateCurrent(GestureDetector.MOVE_RIGHT);
+        senders[1].setInitial(300, 400, 1010);
+        senders[1].setStateCurrent(GestureDetector.DOWN);
+        send();
+        assertRestored(0);
+        assertRestored(1);
+
+        senders[0].update(61, 22.4f, 1030);
+        senders[0].setTracking(false);
+        senders[0].setStateCurrent(GestureDetector.UP);
+        send();
+        assertRestored(0);
+        assertRestored(1);
+    }
+
+    @Test
+    public void upAndDownBetweenFrames_startsNewStroke() throws IOException {
+        senders[0].setInitial(10, 10, 1000);
+        senders[0].update(50, 10, 1016);
+        send();
+
+        // lift up and press down again at other position before the next frame
+        senders[0].setTracking(false);
+        senders[0].setInitial(200, 300, 1100);
+        senders[0].update(210, 300, 1116);
+        send();
+        assertRestored(0);
+        assertTrue(receivers[0].isTracking());
+    }
+
+    @Test
+    public void unchangedFingers_areNotWritten() throws IOException {
+        senders[0].setInitial(10, 10, 1000);
+        send();
+        int size = buffer.position();
+
+        send();
+        assertTrue(buffer.position() < size);
+        assertRestored(0);
+    }
+
+    @Test
+    public void keyFrame_resyncsNewReceiver() throws IOException {
+        senders[0].setInitial(10, 10, 1000);
+        senders[0].update(80, 40, 1032);
+        senders[0].setStateCurrent(GestureDetector.MOVE_RIGHT);
+        send();
+
+        // new receiver joins, and the sender writes key frame for it
+        decoder = new FingerCodec(2);
+        receivers = new Finger[]{new Finger(), new Finger()};
+        encoder.requestKeyFrame();
+        send();
+        assertRestored(0);
+        assertRestored(1);
+    }
+
+    @Test
+    public void decode_restoresInPlace() throws IOException {
+        PointF initial = receivers[0].getPositionInitial();
+        PointF current = receivers[0].getPositionCurrent();
+        PointF delta = receivers[0].getPositionDeltaInitial();
+
+        senders[0].setInitial(10, 10, 1000);
+        send();
+        senders[0].update(40, 50, 1020);
+        send();
+        assertRestored(0);
+        assertSame(initial, receivers[0].getPositionInitial());
+        assertSame(current, receivers[0].getPositionCurrent());
+        assertSame(delta, receivers[0].getPositionDeltaInitial());
+        assertEquals(30, delta.x, DELTA);
+        assertEquals(40, delta.y, DELTA);
+        assertEquals(50, receivers[0].getDistanceInitial(), DELTA);
+        assertEquals(20, receivers[0].getDurationInitial(), 0);
+    }
+}
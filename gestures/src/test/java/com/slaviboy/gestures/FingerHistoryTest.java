@@ -0,0 +1,89 @@
+package com.slaviboy.gestures;
+
+import android.graphics.PointF;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the FingerHistory lookup.
+ */
+public class FingerHistoryTest {
+
+    private static final float DELTA = 1e-4f;
+
+    private FingerHistory history;
+    private PointF position;
+
+    @Before
+    public void setUp() {
+        history = new FingerHistory(4);
+        position = new PointF();
+    }
+
+    @Test
+    public void emptyHistory_hasNoPosition() {
+        assertFalse(history.getPosition(100, position));
+        assertEquals(0, history.getPath(0, 100, new float[4], new float[4]));
+    }
+
+    @Test
+    public void position_isInterpolated() {
+        history.add(100, 0, 0);
+        history.add(200, 100, 50);
+        assertTrue(history.getPosition(150, position));
+        assertEquals(50, position.x, DELTA);
+        assertEquals(25, position.y, DELTA);
+    }
+
+    @Test
+    public void position_isClampedOutsideHistory() {
+        history.add(100, 10, 20);
+        history.add(200, 30, 40);
+        history.getPosition(50, position);
+        assertEquals(10, position.x, DELTA);
+        assertEquals(20, position.y, DELTA);
+        history.getPosition(300, position);
+        assertEquals(30, position.x, DELTA);
+        assertEquals(40, position.y, DELTA);
+    }
+
+    @Test
+    public void fullHistory_overwritesOldest() {
+        for (int i = 0; i < 6; i++) {
+            history.add(i * 10, i, 0);
+        }
+        assertEquals(4, history.getSampleCount());
+        assertEquals(20, history.getOldestTime());
+        assertEquals(50, history.getNewestTime());
+        assertEquals(2, history.getX(0), DELTA);
+        assertEquals(0, history.search(0));
+        assertEquals(2, history.search(35));
+        assertEquals(4, history.search(60));
+    }
+
+    @Test
+    public void olderSample_getsNewestTime() {
+        history.add(100, 0, 0);
+        history.add(90, 10, 0);
+        assertEquals(100, history.getNewestTime());
+    }
+
+    @Test
+    public void path_startsAndEndsWithInterpolatedPositions() {
+        history.add(0, 0, 0);
+        history.add(10, 10, 0);
+        history.add(20, 20, 0);
+        history.add(30, 30, 0);
+
+        float[] positionsX = new float[8];
+        float[] positionsY = new float[8];
+        int points = history.getPath(5, 25, positionsX, positionsY);
+        assertEquals(4, points);
+        assertArrayEquals(new float[]{5, 10, 20, 25}, Arrays.copyOf(positionsX, points), DELTA);
+    }
+}
@@ -0,0 +1,62 @@
+package com.slaviboy.gestures;
+
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the Finger force press and double tap detection.
+ */
+public class FingerTest {
+
+    private Finger finger;
+
+    @Before
+    public void setUp() {
+        finger = new Finger();
+        finger.setAxes(Finger.AXIS_PRESSURE, 8);
+    }
+
+    @Test
+    public void hardDown_isForcePress() {
+        finger.detectState(MotionEvent.ACTION_DOWN, 0, 0, 1000, 0.9f, 0, 0);
+        assertEquals(GestureDetector.DOWN, finger.getStateCurrent());
+
+        assertTrue(finger.checkForcePress());
+        assertEquals(GestureDetector.FORCE_PRESS, finger.getStateCurrent());
+        assertEquals(GestureDetector.DOWN, finger.getStateLast());
+
+        // detected only once for each stroke
+        finger.detectState(MotionEvent.ACTION_MOVE, 1, 0, 1016, 1, 0, 0);
+        assertFalse(finger.checkForcePress());
+    }
+
+    @Test
+    public void lightDown_isForcePressOnMove() {
+        finger.detectState(MotionEvent.ACTION_DOWN, 0, 0, 1000, 0.2f, 0, 0);
+        assertFalse(finger.checkForcePress());
+        assertEquals(GestureDetector.DOWN, finger.getStateCurrent());
+
+        finger.detectState(MotionEvent.ACTION_MOVE, 1, 0, 1016, 0.9f, 0, 0);
+        assertEquals(GestureDetector.FORCE_PRESS, finger.getStateCurrent());
+    }
+
+    @Test
+    public void secondTap_isDoubleTap_withPreallocatedLastFinger() {
+        finger.detectState(MotionEvent.ACTION_DOWN, 10, 10, 1000);
+        finger.detectState(MotionEvent.ACTION_UP, 10, 10, 1040);
+        Finger lastFinger = finger.getLastFinger();
+
+        finger.detectState(MotionEvent.ACTION_DOWN, 10, 10, 1100);
+        assertSame(lastFinger, finger.getLastFinger());
+        assertEquals(1000, lastFinger.getTimeInitial());
+        assertEquals(GestureDetector.UP, lastFinger.getStateCurrent());
+        assertEquals(0, lastFinger.getVelocityX(), 0);
+
+        finger.detectState(MotionEvent.ACTION_UP, 10, 10, 1140);
+        assertEquals(GestureDetector.DOUBLE_TAP, finger.getStateCurrent());
+    }
+}
@@ -0,0 +1,100 @@
+package com.slaviboy.gestures;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the FlingSimulator closed form positions.
+ */
+public class FlingSimulatorTest {
+
+    private static final float DELTA = 1e-3f;
+
+    private FlingSimulator fling;
+
+    @Before
+    public void setUp() {
+        fling = new FlingSimulator();
+    }
+
+    @Test
+    public void freeFling_decaysToRestPosition() {
+        fling.start(100, 200, 1, -0.5f, 1000);
+        assertEquals(100, fling.getX(1000), DELTA);
+        assertEquals(200, fling.getY(1000), DELTA);
+        assertEquals(100 + FlingSimulator.TIME_CONSTANT, fling.getFinalX(), DELTA);
+        assertEquals(200 - FlingSimulator.TIME_CONSTANT / 2, fling.getFinalY(), DELTA);
+        assertEquals(1, fling.getVelocityX(1000), DELTA);
+
+        long end = 1000 + fling.getDuration();
+        assertFalse(fling.isFinished(end - 1));
+        assertTrue(fling.isFinished(end));
+        assertEquals(fling.getFinalX(), fling.getX(end), FlingSimulator.REST_DISTANCE);
+    }
+
+    @Test
+    public void velocity_isLimited() {
+        fling.start(0, 0, 100, 0, 0);
+        assertEquals(FlingSimulator.MAX_VELOCITY, fling.getVelocityX(0), DELTA);
+    }
+
+    @Test
+    public void snapInterval_movesRestPosition() {
+        fling.setSnapIntervalX(300);
+        fling.start(0, 0, 1, 0, 0);
+        assertEquals(300, fling.getFinalX(), DELTA);
+    }
+
+    @Test
+    public void bound_withoutOverscroll_stopsAtBound() {
+        fling.setOverscrollEnabled(false);
+        fling.setBoundsX(0, 100);
+        fling.start(50, 0, 2, 0, 0);
+        assertEquals(100, fling.getFinalX(), DELTA);
+        for (long time = 0; time <= fling.getDuration(); time += 16) {
+            assertTrue(fling.getX(time) <= 100 + DELTA);
+        }
+    }
+
+    @Test
+    public void bound_withOverscroll_returnsToBound() {
+        fling.setBoundsX(0, 100);
+        fling.start(50, 0, 2, 0, 0);
+        assertEquals(100, fling.getFinalX(), DELTA);
+
+        float max = 0;
+        for (long time = 0; time <= fling.getDuration(); time += 16) {
+            max = Math.max(max, fling.getX(time));
+        }
+        assertTrue(max > 100);
+        assertEquals(100, fling.getX(fling.getDuration()), FlingSimulator.REST_DISTANCE);
+    }
+
+    @Test
+    public void fingerLiftUpAtLastMove_keepsVelocity() {
+        Finger finger = new Finger();
+        finger.setInitial(0, 0, 1000);
+        for (int i = 1; i <= 6; i++) {
+            finger.update(i * 16, 0, 1000 + i * 16);
+        }
+
+        // -up at the position of the last move
+        finger.update(96, 0, 1100);
+        finger.setTracking(false);
+        fling.start(finger, 1100);
+        assertTrue(fling.getVelocityX(1100) > 0.5f);
+        assertEquals(0, fling.getVelocityY(1100), DELTA);
+    }
+
+    @Test
+    public void fingerRestingBeforeUp_doesNotFling() {
+        Finger finger = new Finger();
+        finger.setInitial(0, 0, 1000);
+        finger.update(50, 0, 1016);
+        finger.update(50, 0, 1500);
+        fling.start(finger, 1500);
+        assertEquals(0, fling.getVelocityX(1500), DELTA);
+    }
+}
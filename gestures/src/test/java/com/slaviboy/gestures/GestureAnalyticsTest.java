@@ -0,0 +1,112 @@
+package com.slaviboy.gestures;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the GestureAnalytics counting and snapshots.
+ */
+public class GestureAnalyticsTest {
+
+    private GestureAnalytics analytics;
+    private Finger[] fingers;
+
+    @Before
+    public void setUp() {
+        analytics = new GestureAnalytics();
+        fingers = new Finger[]{new Finger()};
+    }
+
+    private void change(int state, boolean tracking) {
+        fingers[0].setStateLast(fingers[0].getStateCurrent());
+        fingers[0].setStateCurrent(state);
+        fingers[0].setTracking(tracking);
+        analytics.onStateChange(fingers, 0);
+    }
+
+    @Test
+    public void delayedUpAfterSwipe_isSkipped() {
+        fingers[0].setInitial(0, 0, 1000);
+        change(GestureDetector.DOWN, true);
+        change(GestureDetector.SWIPE_RIGHT, false);
+        change(GestureDetector.UP, false);
+        assertEquals(1, analytics.getCount(GestureDetector.SWIPE_RIGHT));
+        assertEquals(0, analytics.getCount(GestureDetector.UP));
+
+        // tap is released with -up
+        fingers[0].setInitial(0, 0, 2000);
+        change(GestureDetector.DOWN, true);
+        change(GestureDetector.UP, false);
+        assertEquals(1, analytics.getCount(GestureDetector.UP));
+        assertEquals(2, analytics.getCount(GestureDetector.DOWN));
+    }
+
+    @Test
+    public void fingerIndexFrom64_doesNotChangeLowerFinger() {
+        Finger[] many = new Finger[65];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = new Finger();
+        }
+        fingers = many;
+        fingers[0].setInitial(0, 0, 1000);
+        change(GestureDetector.DOWN, true);
+        change(GestureDetector.SWIPE_RIGHT, false);
+
+        // -down of finger 64 must not clear the recorded release of finger 0
+        fingers[64].setInitial(0, 0, 1010);
+        fingers[64].setStateCurrent(GestureDetector.DOWN);
+        fingers[64].setTracking(true);
+        analytics.onStateChange(fingers, 64);
+
+        change(GestureDetector.UP, false);
+        assertEquals(0, analytics.getCount(GestureDetector.UP));
+        assertEquals(1, analytics.getCount(GestureDetector.SWIPE_RIGHT));
+    }
+
+    @Test
+    public void snapshot_roundTrip() {
+        analytics.record(GestureDetector.SWIPE_UP, 120, 300);
+        analytics.record(GestureDetector.SWIPE_UP, 80, 200);
+        analytics.recordDoubleTap(150);
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        analytics.writeSnapshot(buffer);
+        buffer.flip();
+
+        GestureAnalytics merged = new GestureAnalytics();
+        merged.readSnapshot(buffer);
+        assertEquals(2, merged.getCount(GestureDetector.SWIPE_UP));
+        assertEquals(80, merged.getDurationMin(GestureDetector.SWIPE_UP));
+        assertEquals(300, merged.getDistanceMax(GestureDetector.SWIPE_UP));
+        assertEquals(1, merged.getDoubleTapCount());
+        assertEquals(1, merged.getDoubleTapBucket(GestureAnalytics.bucketOf(150)));
+    }
+
+    @Test
+    public void invalidSnapshot_doesNotChangeStatistics() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put((byte) GestureAnalytics.SNAPSHOT_VERSION);
+        Varint.writeUnsigned(buffer, 2);
+
+        // valid state, followed by state out of range
+        Varint.writeUnsigned(buffer, GestureDetector.DOWN);
+        for (int i = 0; i < 5; i++) {
+            Varint.writeUnsigned(buffer, 1);
+        }
+        Varint.writeUnsigned(buffer, 0);
+        Varint.writeUnsigned(buffer, 0);
+        Varint.writeUnsigned(buffer, GestureDetector.STATE_COUNT);
+        buffer.flip();
+
+        try {
+            analytics.readSnapshot(buffer);
+            fail("invalid snapshot is read");
+        } catch (IllegalArgumentException e) {
+            assertEquals(0, analytics.getCount(GestureDetector.DOWN));
+        }
+    }
+}
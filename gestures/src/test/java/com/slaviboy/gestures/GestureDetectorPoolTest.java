@@ -0,0 +1,70 @@
+package com.slaviboy.gestures;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the GestureDetectorPool metrics and the reset of recycled detectors.
+ */
+public class GestureDetectorPoolTest {
+
+    private GestureDetectorPool pool;
+
+    @Before
+    public void setUp() {
+        Handler.clearAll();
+        SystemClock.setUptimeMillis(1000);
+        pool = new GestureDetectorPool(2);
+    }
+
+    @Test
+    public void acquireAndRelease_countHitsMissesAndDropped() {
+        pool.prefill(1);
+        assertEquals(1, pool.getFreeCount());
+
+        GestureDetector first = pool.acquire();
+        GestureDetector second = pool.acquire();
+        GestureDetector third = pool.acquire();
+        assertEquals(1, pool.getHitCount());
+        assertEquals(2, pool.getMissCount());
+        assertEquals(1.0 / 3.0, pool.getHitRate(), 1e-9);
+        assertEquals(0, pool.getFreeCount());
+
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        assertEquals(2, pool.getFreeCount());
+        assertEquals(1, pool.getDroppedCount());
+
+        assertSame(second, pool.acquire());
+        assertEquals(2, pool.getHitCount());
+
+        pool.clear();
+        assertEquals(0, pool.getFreeCount());
+        assertEquals(2, pool.getHitCount());
+    }
+
+    @Test
+    public void recycledDetector_doesNotCallOldListeners() {
+        GestureDetectorTest.CountingListener old = new GestureDetectorTest.CountingListener();
+        GestureDetector detector = pool.acquire();
+        detector.setOnGestureListener(old);
+        detector.addOnGestureListener(old, GestureDetector.STATE_MASK_ALL);
+        pool.release(detector);
+
+        GestureDetector recycled = pool.acquire();
+        assertSame(detector, recycled);
+        GestureDetectorTest.CountingListener bound = new GestureDetectorTest.CountingListener();
+        recycled.setOnGestureListener(bound);
+        recycled.onTouch(null, MotionEvent.obtain(1000, MotionEvent.ACTION_DOWN,
+                new int[]{0}, new float[]{10}, new float[]{10}));
+        assertEquals(0, old.count);
+        assertEquals(1, bound.count);
+    }
+}
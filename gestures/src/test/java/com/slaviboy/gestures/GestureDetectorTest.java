@@ -0,0 +1,137 @@
+package com.slaviboy.gestures;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the GestureDetector reset, cancel and fingers, run with the test MotionEvent and Handler.
+ */
+public class GestureDetectorTest {
+
+    private GestureDetector detector;
+    private CountingListener listener;
+
+    @Before
+    public void setUp() {
+        Handler.clearAll();
+        SystemClock.setUptimeMillis(1000);
+        detector = new GestureDetector(2, 100, 50, true);
+        listener = new CountingListener();
+    }
+
+    private void touch(long time, int action, int pointerIndex, int[] ids, float[] xs, float[] ys) {
+        SystemClock.setUptimeMillis(time);
+        int actionWithIndex = action | (pointerIndex << MotionEvent.ACTION_POINTER_INDEX_SHIFT);
+        detector.onTouch(null, MotionEvent.obtain(time, actionWithIndex, ids, xs, ys));
+    }
+
+    private void tap(long time) {
+        touch(time, MotionEvent.ACTION_DOWN, 0, new int[]{0}, new float[]{10}, new float[]{10});
+        touch(time + 20, MotionEvent.ACTION_UP, 0, new int[]{0}, new float[]{10}, new float[]{10});
+    }
+
+    @Test
+    public void reset_removesAllListeners() {
+        detector.setOnGestureListener(listener);
+        CountingListener added = new CountingListener();
+        detector.addOnGestureListener(added, GestureDetector.STATE_MASK_ALL);
+        GestureInput input = detector.enablePolling(16);
+        tap(1000);
+        assertTrue(listener.count > 0);
+        assertTrue(added.count > 0);
+
+        detector.reset();
+        input.beginTick();
+        listener.count = 0;
+        added.count = 0;
+        tap(2000);
+        Handler.runUntil(3000);
+        input.beginTick();
+        assertEquals(0, listener.count);
+        assertEquals(0, added.count);
+        assertNull(detector.getGestureInput());
+        assertEquals(0, input.getPressedMask());
+    }
+
+    @Test
+    public void reset_thenBind_callsOnlyNewListener() {
+        detector.addOnGestureListener(listener, GestureDetector.STATE_MASK_ALL);
+        detector.reset();
+
+        CountingListener bound = new CountingListener();
+        detector.addOnGestureListener(bound, GestureDetector.stateMask(GestureDetector.DOWN));
+        tap(1000);
+        assertEquals(0, listener.count);
+        assertEquals(1, bound.count);
+        assertEquals(GestureDetector.DOWN, bound.lastState);
+    }
+
+    @Test
+    public void setNumberOfFingers_fromZero_keepsStrokeCapture() {
+        detector.setStrokeCapture(8, 2);
+        detector.setNumberOfFingers(0);
+        detector.setNumberOfFingers(2);
+
+        assertEquals(2, detector.getFingers().length);
+        assertEquals(8, detector.getStroke(1).getCapacity());
+        assertEquals(2, detector.getStroke(1).getTolerance(), 0);
+    }
+
+    @Test
+    public void cancel_duringChord_clearsFingersAndHoldDown() {
+        detector.addOnGestureListener(listener, GestureDetector.STATE_MASK_ALL);
+        touch(1000, MotionEvent.ACTION_DOWN, 0, new int[]{0}, new float[]{10}, new float[]{10});
+        touch(1010, MotionEvent.ACTION_POINTER_DOWN, 1,
+                new int[]{0, 1}, new float[]{10, 50}, new float[]{10, 50});
+        assertEquals(3, detector.getActiveIds());
+
+        touch(1020, MotionEvent.ACTION_CANCEL, 0,
+                new int[]{0, 1}, new float[]{10, 50}, new float[]{10, 50});
+        assertEquals(0, detector.getActiveIds());
+        assertFalse(detector.getFingers()[0].isTracking());
+        assertFalse(detector.getFingers()[1].isTracking());
+
+        listener.count = 0;
+        Handler.runUntil(2000);
+        assertEquals(0, listener.count);
+        assertEquals(0, Handler.getPendingCount());
+    }
+
+    @Test
+    public void cancel_withPendingUp_doesNotDispatchUp() {
+        detector.addOnGestureListener(listener, GestureDetector.STATE_MASK_DISCRETE);
+        touch(1000, MotionEvent.ACTION_DOWN, 0, new int[]{0}, new float[]{10}, new float[]{10});
+        touch(1010, MotionEvent.ACTION_POINTER_DOWN, 1,
+                new int[]{0, 1}, new float[]{10, 50}, new float[]{10, 50});
+        touch(1060, MotionEvent.ACTION_POINTER_UP, 0,
+                new int[]{0, 1}, new float[]{300, 50}, new float[]{10, 50});
+        assertEquals(GestureDetector.SWIPE_RIGHT, listener.lastState);
+
+        touch(1070, MotionEvent.ACTION_CANCEL, 0, new int[]{1}, new float[]{50}, new float[]{50});
+        listener.count = 0;
+        Handler.runUntil(2000);
+        assertEquals(0, listener.count);
+        assertEquals(GestureDetector.SWIPE_RIGHT, detector.getFingers()[0].getStateCurrent());
+    }
+
+    /**
+     * Listener that counts the state changes, and keeps the last state.
+     */
+    static class CountingListener implements GestureDetector.OnGestureListener {
+
+        int count;      // number of state changes
+        int lastState;  // state of the last state change
+
+        @Override
+        public void onStateChange(Finger[] fingers, int fingerIndex) {
+            count++;
+            lastState = fingers[fingerIndex].getStateCurrent();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.slaviboy.gestures;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the GestureEventQueue, with multiple producer threads and a
+ * single consumer.
+ */
+public class GestureEventQueueTest {
+
+    @Test
+    public void event_isPacked() {
+        GestureEventQueue queue = new GestureEventQueue(4);
+        assertTrue(queue.offer(3, GestureDetector.SWIPE_LEFT, 123456789L));
+        long event = queue.poll();
+        assertEquals(3, GestureEventQueue.getFingerIndex(event));
+        assertEquals(GestureDetector.SWIPE_LEFT, GestureEventQueue.getState(event));
+        assertEquals(123456789L, GestureEventQueue.getTime(event));
+        assertEquals(GestureEventQueue.EMPTY, queue.poll());
+    }
+
+    @Test
+    public void fullQueue_dropsEvents() {
+        GestureEventQueue queue = new GestureEventQueue(3);
+        assertEquals(4, queue.getCapacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(0, GestureDetector.DOWN, i));
+        }
+        assertFalse(queue.offer(0, GestureDetector.DOWN, 4));
+        assertEquals(1, queue.getDropped());
+
+        // events are kept in order, and the freed slot can be used again
+        assertEquals(0, GestureEventQueue.getTime(queue.poll()));
+        assertTrue(queue.offer(0, GestureDetector.DOWN, 5));
+        for (long time : new long[]{1, 2, 3, 5}) {
+            assertEquals(time, GestureEventQueue.getTime(queue.poll()));
+        }
+        assertEquals(GestureEventQueue.EMPTY, queue.poll());
+    }
+
+    @Test
+    public void multipleProducers_eachEventIsReceivedOnce() throws InterruptedException {
+        final int producers = 4;
+        final int eventsPerProducer = 50000;
+        final GestureEventQueue queue = new GestureEventQueue(64);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int fingerIndex = p;
+            threads[p] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < eventsPerProducer; i++) {
+                        while (!queue.offer(fingerIndex, GestureDetector.MOVE_UP, i)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        start.countDown();
+
+        // events from each producer must arrive in order, without gaps or duplicates
+        long[] expected = new long[producers];
+        int received = 0;
+        while (received < producers * eventsPerProducer) {
+            long event = queue.poll();
+            if (event == GestureEventQueue.EMPTY) {
+                Thread.yield();
+                continue;
+            }
+            int fingerIndex = GestureEventQueue.getFingerIndex(event);
+            assertEquals(GestureDetector.MOVE_UP, GestureEventQueue.getState(event));
+            assertEquals(expected[fingerIndex], GestureEventQueue.getTime(event));
+            expected[fingerIndex]++;
+            received++;
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(GestureEventQueue.EMPTY, queue.poll());
+        for (int p = 0; p < producers; p++) {
+            assertEquals(eventsPerProducer, expected[p]);
+        }
+    }
+}
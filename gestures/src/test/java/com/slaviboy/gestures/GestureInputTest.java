@@ -0,0 +1,90 @@
+package com.slaviboy.gestures;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the GestureInput edge flags and event times.
+ */
+public class GestureInputTest {
+
+    private GestureInput input;
+    private Finger[] fingers;
+
+    @Before
+    public void setUp() {
+        input = new GestureInput(16);
+        fingers = new Finger[]{new Finger(), new Finger()};
+    }
+
+    private void change(int fingerIndex, int state, boolean tracking) {
+        fingers[fingerIndex].setStateLast(fingers[fingerIndex].getStateCurrent());
+        fingers[fingerIndex].setStateCurrent(state);
+        fingers[fingerIndex].setTracking(tracking);
+        input.onStateChange(fingers, fingerIndex);
+    }
+
+    @Test
+    public void touchStates_haveEventTime() {
+        fingers[1].setInitial(10, 10, 1000);
+        change(1, GestureDetector.DOWN, true);
+        fingers[1].update(90, 10, 1080);
+        change(1, GestureDetector.SWIPE_RIGHT, false);
+
+        long event = input.poll();
+        assertEquals(GestureDetector.DOWN, GestureEventQueue.getState(event));
+        assertEquals(1, GestureEventQueue.getFingerIndex(event));
+        assertEquals(1000, GestureEventQueue.getTime(event));
+        event = input.poll();
+        assertEquals(GestureDetector.SWIPE_RIGHT, GestureEventQueue.getState(event));
+        assertEquals(1080, GestureEventQueue.getTime(event));
+    }
+
+    @Test
+    public void edgeFlags_areSeenInOneTick() {
+        fingers[0].setInitial(0, 0, 1000);
+        change(0, GestureDetector.DOWN, true);
+        fingers[0].update(0, 0, 1050);
+        change(0, GestureDetector.UP, false);
+
+        input.beginTick();
+        assertTrue(input.wasPressed(0));
+        assertTrue(input.wasReleased(0));
+        assertFalse(input.wasSwiped(0));
+        assertFalse(input.wasPressed(1));
+
+        input.beginTick();
+        assertFalse(input.wasPressed(0));
+        assertFalse(input.wasReleased(0));
+    }
+
+    @Test
+    public void reset_releasesFingersThatAreDown() {
+        fingers[1].setInitial(0, 0, 1000);
+        change(1, GestureDetector.DOWN, true);
+        input.reset();
+
+        input.beginTick();
+        assertTrue(input.wasPressed(1));
+        assertTrue(input.wasReleased(1));
+        assertFalse(input.wasReleased(0));
+
+        input.reset();
+        input.beginTick();
+        assertFalse(input.wasReleased(1));
+    }
+
+    @Test
+    public void fingerIndexFrom64_hasNoEdgeFlags() {
+        fingers[0].setInitial(0, 0, 1000);
+        change(0, GestureDetector.DOWN, true);
+
+        input.beginTick();
+        assertTrue(input.wasPressed(0));
+        assertFalse(input.wasPressed(64));
+        assertFalse(input.wasReleased(64));
+        assertFalse(input.wasSwiped(64));
+    }
+}
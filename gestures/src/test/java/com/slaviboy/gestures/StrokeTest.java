@@ -0,0 +1,138 @@
+package com.slaviboy.gestures;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the Stroke simplification.
+ */
+public class StrokeTest {
+
+    private static final float DELTA = 1e-4f;
+
+    private Stroke stroke;
+
+    @Before
+    public void setUp() {
+        stroke = new Stroke(16, 2);
+    }
+
+    /**
+     * Get the max distance of a point from the simplified path.
+     */
+    private double distanceFromPath(float x, float y) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 1; i < stroke.getPointCount(); i++) {
+            min = Math.min(min, distanceFromSegment(x, y, stroke.getX(i - 1), stroke.getY(i - 1),
+                    stroke.getX(i), stroke.getY(i)));
+        }
+        return min;
+    }
+
+    private static double distanceFromSegment(float x, float y, float x0, float y0, float x1, float y1) {
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double length = dx * dx + dy * dy;
+        double t = length == 0 ? 0 : Math.max(0, Math.min(1, ((x - x0) * dx + (y - y0) * dy) / length));
+        return Math.hypot(x - x0 - t * dx, y - y0 - t * dy);
+    }
+
+    @Test
+    public void straightLine_keepsEndPoints() {
+        stroke.begin(0, 0);
+        for (int i = 1; i <= 100; i++) {
+            stroke.add(i, 0);
+        }
+        stroke.end();
+        assertEquals(2, stroke.getPointCount());
+        assertEquals(0, stroke.getX(0), DELTA);
+        assertEquals(100, stroke.getX(1), DELTA);
+        assertFalse(stroke.isActive());
+    }
+
+    @Test
+    public void lastPoint_isMostRecentPosition() {
+        stroke.begin(0, 0);
+        stroke.add(10, 0);
+        stroke.add(20, 1);
+        int last = stroke.getPointCount() - 1;
+        assertEquals(20, stroke.getX(last), DELTA);
+        assertEquals(1, stroke.getY(last), DELTA);
+    }
+
+    @Test
+    public void corner_isKeptWithinTolerance() {
+        float[] xs = new float[21];
+        float[] ys = new float[21];
+        for (int i = 0; i <= 20; i++) {
+            xs[i] = i <= 10 ? i * 5 : 50;
+            ys[i] = i <= 10 ? 0 : (i - 10) * 5;
+        }
+
+        stroke.begin(xs[0], ys[0]);
+        for (int i = 1; i <= 20; i++) {
+            stroke.add(xs[i], ys[i]);
+        }
+        stroke.end();
+
+        assertEquals(3, stroke.getPointCount());
+        for (int i = 0; i <= 20; i++) {
+            assertTrue(distanceFromPath(xs[i], ys[i]) <= stroke.getTolerance() + DELTA);
+        }
+    }
+
+    @Test
+    public void fullStroke_isSimplifiedAgain() {
+        int n = 400;
+        float[] xs = new float[n];
+        float[] ys = new float[n];
+        for (int i = 0; i < n; i++) {
+            double angle = 2 * Math.PI * i / n;
+            xs[i] = (float) (100 * Math.cos(angle));
+            ys[i] = (float) (100 * Math.sin(angle));
+        }
+
+        stroke = new Stroke(8, 0.5f);
+        stroke.begin(xs[0], ys[0]);
+        for (int i = 1; i < n; i++) {
+            stroke.add(xs[i], ys[i]);
+            assertTrue(stroke.getPointCount() <= stroke.getCapacity() + 1);
+        }
+        stroke.end();
+
+        assertTrue(stroke.getToleranceCurrent() > stroke.getTolerance());
+        assertTrue(stroke.getPointCount() <= stroke.getCapacity());
+        assertEquals(xs[0], stroke.getX(0), DELTA);
+        assertEquals(xs[n - 1], stroke.getX(stroke.getPointCount() - 1), DELTA);
+        assertEquals(ys[n - 1], stroke.getY(stroke.getPointCount() - 1), DELTA);
+
+        // the shape is kept, instead of only replacing the last point
+        for (int i = 0; i < n; i++) {
+            assertTrue(distanceFromPath(xs[i], ys[i]) <= 2 * stroke.getToleranceCurrent());
+        }
+
+        stroke.begin(0, 0);
+        assertEquals(stroke.getTolerance(), stroke.getToleranceCurrent(), DELTA);
+    }
+
+    @Test
+    public void copyTo_includesPendingPoint() {
+        stroke.begin(0, 0);
+        stroke.add(10, 0);
+        float[] out = new float[stroke.getPointCount() * 2];
+        assertEquals(2, stroke.copyTo(out));
+        assertArrayEquals(new float[]{0, 0, 10, 0}, out, DELTA);
+    }
+
+    @Test
+    public void inactiveStroke_ignoresPoints() {
+        stroke.add(10, 10);
+        assertEquals(0, stroke.getPointCount());
+        stroke.begin(0, 0);
+        stroke.clear();
+        assertEquals(0, stroke.getPointCount());
+        assertFalse(stroke.isActive());
+    }
+}
@@ -0,0 +1,124 @@
+package com.slaviboy.gestures;
+
+import android.graphics.PointF;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the TouchResampler interpolation, extrapolation and resizing.
+ */
+public class TouchResamplerTest {
+
+    private TestFrameClock frameClock;
+    private TouchResampler resampler;
+    private PointF position;
+
+    @Before
+    public void setUp() {
+        frameClock = new TestFrameClock();
+        resampler = new TouchResampler(frameClock, 2);
+        position = new PointF();
+    }
+
+    @Test
+    public void resample_interpolatesBetweenSamples() {
+        resampler.begin(1, 1000, 0, 0);
+        resampler.add(1, 1010, 100, 50);
+        assertTrue(resampler.isPending(1));
+
+        assertTrue(resampler.resample(1, 1005, position));
+        assertEquals(50, position.x, 1e-3);
+        assertEquals(25, position.y, 1e-3);
+        assertFalse(resampler.isPending(1));
+        assertFalse(resampler.resample(0, 1005, position));
+    }
+
+    @Test
+    public void resample_extrapolatesUpToMaxAndNeverGoesBack() {
+        resampler.setMaxExtrapolation(4);
+        resampler.begin(0, 1000, 0, 0);
+        resampler.add(0, 1010, 10, 0);
+
+        assertTrue(resampler.resample(0, 1100, position));
+        assertEquals(1014, resampler.getResampledTime(0));
+        assertEquals(14, position.x, 1e-3);
+
+        assertTrue(resampler.resample(0, 1002, position));
+        assertEquals(1014, resampler.getResampledTime(0));
+    }
+
+    @Test
+    public void resample_keepsOnlyLatestSamples() {
+        resampler.begin(0, 1000, 0, 0);
+        for (int i = 1; i <= TouchResampler.SAMPLES; i++) {
+            resampler.add(0, 1000 + i * 10, i * 10, 0);
+        }
+        assertTrue(resampler.resample(0, 0, position));
+        assertEquals(1010, resampler.getResampledTime(0));
+        assertEquals(10, position.x, 1e-3);
+    }
+
+    @Test
+    public void nextFrame_isReturnedOncePerFrame() {
+        resampler.setLatency(3);
+        frameClock.time = 2000;
+        assertEquals(1997, resampler.nextFrame());
+        assertEquals(TouchResampler.SAME_FRAME, resampler.nextFrame());
+        frameClock.time = 2016;
+        assertEquals(2013, resampler.nextFrame());
+    }
+
+    @Test
+    public void setNumberOfFingers_keepsSettingsAndClearsSamples() {
+        resampler.setLatency(2);
+        resampler.setMaxExtrapolation(12);
+        resampler.begin(0, 1000, 0, 0);
+
+        resampler.setNumberOfFingers(3);
+        assertEquals(3, resampler.getNumberOfFingers());
+        assertEquals(2, resampler.getLatency());
+        assertEquals(12, resampler.getMaxExtrapolation());
+        assertSame(frameClock, resampler.getFrameClock());
+        assertFalse(resampler.resample(0, 1000, position));
+        assertFalse(resampler.resample(2, 1000, position));
+    }
+
+    @Test
+    public void detectorSetNumberOfFingers_keepsResamplerSettings() {
+        GestureDetector detector = new GestureDetector(2, 100, 50, true);
+        detector.setFrameClock(frameClock);
+        TouchResampler detectorResampler = detector.getTouchResampler();
+        detectorResampler.setLatency(1);
+        detectorResampler.setMaxExtrapolation(20);
+
+        detector.setNumberOfFingers(4);
+        assertSame(detectorResampler, detector.getTouchResampler());
+        assertEquals(4, detectorResampler.getNumberOfFingers());
+        assertEquals(1, detectorResampler.getLatency());
+        assertEquals(20, detectorResampler.getMaxExtrapolation());
+    }
+
+    /**
+     * Frame clock with the frame time set by the tests, and frame callbacks that are not run.
+     */
+    static class TestFrameClock implements FrameClock {
+
+        long time;  // time of the current frame (ms)
+
+        @Override
+        public long getFrameTime() {
+            return time;
+        }
+
+        @Override
+        public void postFrameCallback(Runnable callback) {
+        }
+
+        @Override
+        public void removeFrameCallback(Runnable callback) {
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.slaviboy.gestures;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the Varint encoding.
+ */
+public class VarintTest {
+
+    private static final long[] VALUES = {0, 1, 63, 64, 127, 128, 300, 16383, 16384,
+            Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, -1, -64, -65};
+
+    @Test
+    public void unsigned_roundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(16 * VALUES.length);
+        for (long value : VALUES) {
+            Varint.writeUnsigned(buffer, value);
+        }
+        buffer.flip();
+        for (long value : VALUES) {
+            assertEquals(value, Varint.readUnsigned(buffer));
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void signed_roundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(16 * VALUES.length);
+        for (long value : VALUES) {
+            Varint.writeSigned(buffer, value);
+        }
+        buffer.flip();
+        for (long value : VALUES) {
+            assertEquals(value, Varint.readSigned(buffer));
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void smallValues_takeOneByte() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        Varint.writeUnsigned(buffer, 127);
+        assertEquals(1, buffer.position());
+        Varint.writeSigned(buffer, -64);
+        assertEquals(2, buffer.position());
+        Varint.writeUnsigned(buffer, 128);
+        assertEquals(4, buffer.position());
+    }
+}
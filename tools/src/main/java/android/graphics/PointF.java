@@ -0,0 +1,24 @@
+package android.graphics;
+
+/**
+ * Minimal PointF for the JVM, it is placed before the android.jar stub on the classpath,
+ * whose methods throw, so the finger objects can be used by the tools.
+ */
+public class PointF {
+
+    public float x;
+    public float y;
+
+    public PointF() {
+    }
+
+    public PointF(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public final void set(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+}
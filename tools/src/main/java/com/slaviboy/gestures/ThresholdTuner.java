@@ -0,0 +1,407 @@
+package com.slaviboy.gestures;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Headless tool that tunes the finger thresholds, by replaying a TouchCorpus through the
+ * finger state detection for many configurations, and reporting the accuracy and the
+ * confusion matrix for each configuration. Each sequence is replayed through a real Finger
+ * object, so the jitter filter, the direction hysteresis and the early swipe set on the
+ * template finger are part of the replay, and the work is split over the configurations
+ * and the sequences with fork-join, so all cores are used. Each task reuses one finger for
+ * all its sequences. It is meant to run on the JVM of a build server, not on the device.
+ * <p>
+ * Each configuration is a double array with the values in order: minDistanceSwipe,
+ * maxDurationSwipe, minDistanceMove, maxDurationDoubleTap, maxDownDoubleTap and
+ * slopeIntolerance, the same order as in the Finger constructor.
+ * <pre>
+ * ./gradlew :tools:run --args="corpus.txt [randomCount]"
+ * </pre>
+ */
+public class ThresholdTuner {
+
+    // indices of the values in a configuration
+    public static final int MIN_DISTANCE_SWIPE = 0;
+    public static final int MAX_DURATION_SWIPE = 1;
+    public static final int MIN_DISTANCE_MOVE = 2;
+    public static final int MAX_DURATION_DOUBLE_TAP = 3;
+    public static final int MAX_DOWN_DOUBLE_TAP = 4;
+    public static final int SLOPE_INTOLERANCE = 5;
+    public static final int PARAMETERS = 6;
+
+    static final int SEQUENCES_PER_TASK = 4096;     // number of sequences replayed in one fork-join task
+
+    private final ForkJoinPool pool;                // pool where the replays are run
+    private Finger template;                        // finger whose properties are used in the replay, except the tuned thresholds
+
+    public ThresholdTuner() {
+        this(new ForkJoinPool());
+    }
+
+    public ThresholdTuner(ForkJoinPool pool) {
+        this.pool = pool;
+        this.template = new Finger();
+    }
+
+    /**
+     * Get the default configuration, with the Finger default constants.
+     *
+     * @return
+     */
+    public static double[] getDefaultConfig() {
+        return new double[]{Finger.MIN_DISTANCE_SWIPE, Finger.MAX_DURATION_SWIPE, Finger.MIN_DISTANCE_MOVE,
+                Finger.MAX_DURATION_DOUBLE_TAP, Finger.MAX_DOWN_DOUBLE_TAP, Finger.SLOPE_INTOLERANCE};
+    }
+
+    /**
+     * Create all combinations of the given values for each parameter (grid search).
+     *
+     * @param values - values for each parameter, in the configuration order
+     * @return the configurations
+     */
+    public static double[][] grid(double[][] values) {
+
+        int total = 1;
+        for (double[] parameter : values) {
+            total *= parameter.length;
+        }
+
+        double[][] configs = new double[total][PARAMETERS];
+        for (int i = 0; i < total; i++) {
+            int rest = i;
+            for (int p = PARAMETERS - 1; p >= 0; p--) {
+                configs[i][p] = values[p][rest % values[p].length];
+                rest /= values[p].length;
+            }
+        }
+        return configs;
+    }
+
+    /**
+     * Create configurations with random values in the given ranges (random search).
+     *
+     * @param min   - min value for each parameter
+     * @param max   - max value for each parameter
+     * @param count - number of configurations
+     * @param seed  - seed for the random generator, so the search can be repeated
+     * @return the configurations
+     */
+    public static double[][] random(double[] min, double[] max, int count, long seed) {
+
+        Random random = new Random(seed);
+        double[][] configs = new double[count][PARAMETERS];
+        for (int i = 0; i < count; i++) {
+            for (int p = 0; p < PARAMETERS; p++) {
+                double value = min[p] + random.nextDouble() * (max[p] - min[p]);
+                configs[i][p] = p == SLOPE_INTOLERANCE ? value : Math.round(value);
+            }
+        }
+        return configs;
+    }
+
+    /**
+     * Replay the corpus for each configuration in parallel.
+     *
+     * @param corpus  - labeled touch sequences
+     * @param configs - configurations to evaluate
+     * @return result for each configuration, in the same order
+     */
+    public Result[] tune(TouchCorpus corpus, double[][] configs) {
+        Result[] results = new Result[configs.length];
+        pool.invoke(new ConfigTask(corpus, configs, template, results, 0, configs.length));
+        return results;
+    }
+
+    /**
+     * Create finger for the replay, with the properties of the template finger and the
+     * thresholds from the configuration.
+     *
+     * @param template - finger whose properties are copied
+     * @param config   - configuration values
+     * @return the new finger
+     */
+    public static Finger createFinger(Finger template, double[] config) {
+        Finger finger = new Finger();
+        finger.copyProperties(template);
+        finger.setMinDistanceSwipe((int) config[MIN_DISTANCE_SWIPE]);
+        finger.setMaxDurationSwipe((int) config[MAX_DURATION_SWIPE]);
+        finger.setMinDistanceMove((int) config[MIN_DISTANCE_MOVE]);
+        finger.setMaxDurationDoubleTap((int) config[MAX_DURATION_DOUBLE_TAP]);
+        finger.setMaxDownDoubleTap((int) config[MAX_DOWN_DOUBLE_TAP]);
+        finger.setSlopeIntolerance(config[SLOPE_INTOLERANCE]);
+        return finger;
+    }
+
+    /**
+     * Replay one sequence with a new finger, that has the default properties and the
+     * thresholds from the configuration.
+     *
+     * @param corpus   - labeled touch sequences
+     * @param sequence - sequence index
+     * @param config   - configuration values
+     * @return the detected state
+     */
+    public static int replay(TouchCorpus corpus, int sequence, double[] config) {
+        return replay(corpus, sequence, createFinger(new Finger(), config));
+    }
+
+    /**
+     * Replay one sequence through the finger state detection, and get the state after its
+     * last sample. The finger is cleared first, so the last finger values used for the
+     * double tap start from zero, as for a new finger object. When early swipe is enabled,
+     * the finger is UP after the swipe detected on move, so that swipe is returned instead.
+     *
+     * @param corpus   - labeled touch sequences
+     * @param sequence - sequence index
+     * @param finger   - finger that is reused for the replay
+     * @return the detected state
+     */
+    public static int replay(TouchCorpus corpus, int sequence, Finger finger) {
+
+        finger.clear();
+        int swipe = GestureDetector.NONE;
+        for (int i = corpus.getSequenceStart(sequence); i < corpus.getSequenceEnd(sequence); i++) {
+            finger.detectState(corpus.getAction(i), corpus.getX(i), corpus.getY(i), corpus.getTime(i));
+            int state = finger.getStateCurrent();
+            if (state >= GestureDetector.SWIPE_UP && state <= GestureDetector.SWIPE_RIGHT) {
+                swipe = state;
+            }
+        }
+
+        int state = finger.getStateCurrent();
+        if (state == GestureDetector.UP && finger.isSwipeCommitted()) {
+            return swipe;
+        }
+        return state;
+    }
+
+    /**
+     * Task that splits the configurations in halves, until one configuration is left,
+     * and evaluates it with SequenceTask.
+     */
+    static class ConfigTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final TouchCorpus corpus;
+        private final double[][] configs;
+        private final Finger template;
+        private final Result[] results;
+        private final int from;
+        private final int to;
+
+        ConfigTask(TouchCorpus corpus, double[][] configs, Finger template, Result[] results, int from, int to) {
+            this.corpus = corpus;
+            this.configs = configs;
+            this.template = template;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (to - from == 1) {
+                int[] confusion = new SequenceTask(corpus, configs[from], template,
+                        0, corpus.getSequenceCount()).compute();
+                results[from] = new Result(configs[from], confusion);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ConfigTask(corpus, configs, template, results, from, middle),
+                    new ConfigTask(corpus, configs, template, results, middle, to));
+        }
+    }
+
+    /**
+     * Task that replays a range of sequences for one configuration, splitting the
+     * range until SEQUENCES_PER_TASK are left, and merging the confusion matrices.
+     */
+    static class SequenceTask extends RecursiveTask<int[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final TouchCorpus corpus;
+        private final double[] config;
+        private final Finger template;
+        private final int from;
+        private final int to;
+
+        SequenceTask(TouchCorpus corpus, double[] config, Finger template, int from, int to) {
+            this.corpus = corpus;
+            this.config = config;
+            this.template = template;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+
+            if (to - from <= SEQUENCES_PER_TASK) {
+                int states = GestureDetector.STATE_COUNT;
+                int[] confusion = new int[states * states];
+                Finger finger = createFinger(template, config);
+                for (int sequence = from; sequence < to; sequence++) {
+                    confusion[corpus.getLabel(sequence) * states + replay(corpus, sequence, finger)]++;
+                }
+                return confusion;
+            }
+
+            int middle = (from + to) >>> 1;
+            SequenceTask second = new SequenceTask(corpus, config, template, middle, to);
+            second.fork();
+            int[] confusion = new SequenceTask(corpus, config, template, from, middle).compute();
+            int[] other = second.join();
+            for (int i = 0; i < confusion.length; i++) {
+                confusion[i] += other[i];
+            }
+            return confusion;
+        }
+    }
+
+    public Finger getTemplate() {
+        return template;
+    }
+
+    /**
+     * Set the finger whose properties are used in the replay, like the jitter filter, the
+     * direction hysteresis and the early swipe. The thresholds are taken from each
+     * configuration, and the template is only read while tuning.
+     *
+     * @param template - finger with the properties
+     */
+    public void setTemplate(Finger template) {
+        this.template = template;
+    }
+
+    /**
+     * Load corpus from the file given as first argument, and run grid search around the
+     * default values, or random search if the number of configurations is given as second
+     * argument. The best configurations are printed with their accuracy.
+     *
+     * @param args - corpus file path, and optional number of random configurations
+     * @throws IOException if the corpus cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 1) {
+            System.err.println("Usage: ThresholdTuner corpus.txt [randomCount]");
+            System.exit(1);
+        }
+
+        TouchCorpus corpus;
+        try (Reader reader = new FileReader(args[0])) {
+            corpus = TouchCorpus.load(reader);
+        }
+
+        double[][] configs;
+        if (args.length > 1) {
+            configs = random(new double[]{2, 100, 5, 100, 30, 0.5}, new double[]{60, 800, 80, 500, 250, 3},
+                    Integer.parseInt(args[1]), 0);
+        } else {
+            configs = grid(new double[][]{
+                    {5, 10, 20, 40},
+                    {200, 300, 400, 600},
+                    {15, 30, 45},
+                    {150, 250, 350},
+                    {70, 100, 150},
+                    {0.75, 1, 1.5}});
+        }
+
+        long start = System.nanoTime();
+        Result[] results = new ThresholdTuner().tune(corpus, configs);
+        long elapsed = (System.nanoTime() - start) / 1000000;
+
+        Arrays.sort(results, new Comparator<Result>() {
+            @Override
+            public int compare(Result a, Result b) {
+                return Double.compare(b.getAccuracy(), a.getAccuracy());
+            }
+        });
+
+        System.out.println(configs.length + " configurations x " + corpus.getSequenceCount() +
+                " sequences in " + elapsed + " ms");
+        for (int i = 0; i < Math.min(10, results.length); i++) {
+            System.out.println(String.format("%.4f %s", results[i].getAccuracy(),
+                    Arrays.toString(results[i].getConfig())));
+        }
+    }
+
+    /**
+     * Result for one configuration - accuracy and confusion matrix.
+     */
+    public static class Result {
+
+        private final double[] config;      // configuration values
+        private final int[] confusion;      // number of sequences for [expected * STATE_COUNT + detected]
+        private final int total;            // number of replayed sequences
+        private final int correct;          // number of sequences detected as expected
+
+        Result(double[] config, int[] confusion) {
+            this.config = config;
+            this.confusion = confusion;
+
+            int total = 0, correct = 0;
+            for (int expected = 0; expected < GestureDetector.STATE_COUNT; expected++) {
+                for (int detected = 0; detected < GestureDetector.STATE_COUNT; detected++) {
+                    total += confusion[expected * GestureDetector.STATE_COUNT + detected];
+                }
+                correct += confusion[expected * GestureDetector.STATE_COUNT + expected];
+            }
+            this.total = total;
+            this.correct = correct;
+        }
+
+        public double[] getConfig() {
+            return config;
+        }
+
+        public int getConfusion(int expected, int detected) {
+            return confusion[expected * GestureDetector.STATE_COUNT + detected];
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getCorrect() {
+            return correct;
+        }
+
+        public double getAccuracy() {
+            return total == 0 ? 0 : (double) correct / total;
+        }
+    }
+}
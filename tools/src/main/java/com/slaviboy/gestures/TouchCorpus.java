@@ -0,0 +1,215 @@
+package com.slaviboy.gestures;
+
+import android.view.MotionEvent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Class that holds a corpus of labeled touch sequences, used to tune the finger thresholds.
+ * Each sequence is the samples of one finger (-down, -move and -up events), and the label is
+ * the state expected after its last sample, for example SWIPE_LEFT for a left swipe or
+ * DOUBLE_TAP for two taps. The samples of all sequences are kept in columns - one primitive
+ * array for each value, so millions of samples can be replayed without objects.
+ * <p>
+ * Text format, one value per line, empty lines and lines starting with # are skipped:
+ * <pre>
+ * sequence SWIPE_LEFT
+ * DOWN 500 300 1000
+ * MOVE 420 302 1040
+ * UP 300 305 1090
+ * </pre>
+ * where each sample is the action, x, y and time (ms), and the label is a state name or number.
+ */
+public class TouchCorpus {
+
+    private int sequenceCount;          // number of sequences
+    private int[] sequenceStarts;       // index of the first sample for each sequence, and the total count at the end
+    private int[] labels;               // expected state for each sequence
+
+    private int sampleCount;            // number of samples for all sequences
+    private int[] actions;              // action for each sample: MotionEvent.ACTION_DOWN, ACTION_MOVE or ACTION_UP
+    private float[] positionsX;         // x coordinate for each sample
+    private float[] positionsY;         // y coordinate for each sample
+    private long[] times;               // time for each sample (ms)
+
+    public TouchCorpus() {
+        sequenceStarts = new int[17];
+        labels = new int[16];
+        actions = new int[256];
+        positionsX = new float[256];
+        positionsY = new float[256];
+        times = new long[256];
+    }
+
+    /**
+     * Start new sequence, the following samples are added to it.
+     *
+     * @param label - state expected after the last sample of the sequence
+     */
+    public void beginSequence(int label) {
+        if (sequenceCount == labels.length) {
+            labels = Arrays.copyOf(labels, labels.length * 2);
+        }
+        if (sequenceCount + 1 == sequenceStarts.length) {
+            sequenceStarts = Arrays.copyOf(sequenceStarts, sequenceStarts.length * 2);
+        }
+        labels[sequenceCount] = label;
+        sequenceCount++;
+        sequenceStarts[sequenceCount] = sampleCount;
+    }
+
+    /**
+     * Add sample to the current sequence.
+     *
+     * @param action - MotionEvent.ACTION_DOWN, ACTION_MOVE or ACTION_UP
+     * @param x      - finger x coordinate
+     * @param y      - finger y coordinate
+     * @param time   - time of the sample (ms)
+     */
+    public void addSample(int action, float x, float y, long time) {
+
+        if (sequenceCount == 0) {
+            throw new IllegalStateException("Sample added before beginSequence()");
+        }
+        if (sampleCount == actions.length) {
+            int capacity = actions.length * 2;
+            actions = Arrays.copyOf(actions, capacity);
+            positionsX = Arrays.copyOf(positionsX, capacity);
+            positionsY = Arrays.copyOf(positionsY, capacity);
+            times = Arrays.copyOf(times, capacity);
+        }
+
+        actions[sampleCount] = action;
+        positionsX[sampleCount] = x;
+        positionsY[sampleCount] = y;
+        times[sampleCount] = time;
+        sampleCount++;
+        sequenceStarts[sequenceCount] = sampleCount;
+    }
+
+    /**
+     * Load corpus in the text format, described in the class comment.
+     *
+     * @param reader - reader with the text
+     * @return the loaded corpus
+     * @throws IOException if reading fails or a line is malformed
+     */
+    public static TouchCorpus load(Reader reader) throws IOException {
+
+        TouchCorpus corpus = new TouchCorpus();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int number = 0;
+        while ((line = lines.readLine()) != null) {
+            number++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] values = line.split("\\s+");
+            try {
+                if (values[0].equals("sequence") && values.length == 2) {
+                    corpus.beginSequence(parseState(values[1]));
+                } else if (values.length == 4) {
+                    corpus.addSample(parseAction(values[0]), Float.parseFloat(values[1]),
+                            Float.parseFloat(values[2]), Long.parseLong(values[3]));
+                } else {
+                    throw new IllegalArgumentException("Unexpected number of values");
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                throw new IOException("Malformed line " + number + ": " + line, e);
+            }
+        }
+        return corpus;
+    }
+
+    private static int parseAction(String value) {
+        switch (value) {
+            case "DOWN":
+                return MotionEvent.ACTION_DOWN;
+            case "MOVE":
+                return MotionEvent.ACTION_MOVE;
+            case "UP":
+                return MotionEvent.ACTION_UP;
+        }
+        throw new IllegalArgumentException("Unknown action " + value);
+    }
+
+    /**
+     * Get state from its number, or its name as returned by Finger.getStateAsString()
+     * with underscores instead of spaces. Numbers outside the states are rejected.
+     */
+    private static int parseState(String value) {
+        for (int state = 0; state < GestureDetector.STATE_COUNT; state++) {
+            if (Finger.getStateAsString(state).replace(' ', '_').equals(value)) {
+                return state;
+            }
+        }
+        int state = Integer.parseInt(value);
+        if (state < 0 || state >= GestureDetector.STATE_COUNT) {
+            throw new IllegalArgumentException("Unknown state " + value);
+        }
+        return state;
+    }
+
+    public int getSequenceCount() {
+        return sequenceCount;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public int getLabel(int sequence) {
+        return labels[sequence];
+    }
+
+    public int getSequenceStart(int sequence) {
+        return sequenceStarts[sequence];
+    }
+
+    public int getSequenceEnd(int sequence) {
+        return sequenceStarts[sequence + 1];
+    }
+
+    public int getAction(int sample) {
+        return actions[sample];
+    }
+
+    public float getX(int sample) {
+        return positionsX[sample];
+    }
+
+    public float getY(int sample) {
+        return positionsY[sample];
+    }
+
+    public long getTime(int sample) {
+        return times[sample];
+    }
+}
@@ -0,0 +1,91 @@
+package com.slaviboy.gestures;
+
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the ThresholdTuner replay and tuning, with the finger state detection.
+ */
+public class ThresholdTunerTest {
+
+    private TouchCorpus corpus;
+
+    @Before
+    public void setUp() {
+        corpus = new TouchCorpus();
+
+        // fast left swipe
+        corpus.beginSequence(GestureDetector.SWIPE_LEFT);
+        corpus.addSample(MotionEvent.ACTION_DOWN, 500, 300, 1000);
+        corpus.addSample(MotionEvent.ACTION_MOVE, 420, 302, 1040);
+        corpus.addSample(MotionEvent.ACTION_UP, 300, 305, 1090);
+
+        // two taps
+        corpus.beginSequence(GestureDetector.DOUBLE_TAP);
+        corpus.addSample(MotionEvent.ACTION_DOWN, 100, 100, 1000);
+        corpus.addSample(MotionEvent.ACTION_UP, 100, 100, 1050);
+        corpus.addSample(MotionEvent.ACTION_DOWN, 100, 100, 1150);
+        corpus.addSample(MotionEvent.ACTION_UP, 100, 100, 1200);
+    }
+
+    @Test
+    public void replay_detectsSameStatesAsFinger() {
+        double[] config = ThresholdTuner.getDefaultConfig();
+        assertEquals(GestureDetector.SWIPE_LEFT, ThresholdTuner.replay(corpus, 0, config));
+        assertEquals(GestureDetector.DOUBLE_TAP, ThresholdTuner.replay(corpus, 1, config));
+
+        // the reused finger does not keep the taps of the previous sequence
+        Finger finger = ThresholdTuner.createFinger(new Finger(), config);
+        assertEquals(GestureDetector.DOUBLE_TAP, ThresholdTuner.replay(corpus, 1, finger));
+        assertEquals(GestureDetector.SWIPE_LEFT, ThresholdTuner.replay(corpus, 0, finger));
+    }
+
+    @Test
+    public void replay_withEarlySwipe_returnsSwipeDetectedOnMove() {
+        Finger template = new Finger();
+        template.setEarlySwipeEnabled(true);
+        template.setEarlySwipeDistance(50);
+        Finger finger = ThresholdTuner.createFinger(template, ThresholdTuner.getDefaultConfig());
+
+        assertEquals(GestureDetector.SWIPE_LEFT, ThresholdTuner.replay(corpus, 0, finger));
+        assertTrue(finger.isSwipeCommitted());
+        assertEquals(GestureDetector.UP, finger.getStateCurrent());
+    }
+
+    @Test
+    public void createFinger_usesTemplateAndConfig() {
+        Finger template = new Finger();
+        template.setFilterEnabled(true);
+        template.setDirectionHysteresis(0.5);
+        double[] config = {12, 345, 6, 210, 90, 1.25};
+
+        Finger finger = ThresholdTuner.createFinger(template, config);
+        assertTrue(finger.isFilterEnabled());
+        assertEquals(0.5, finger.getDirectionHysteresis(), 0);
+        assertEquals(12, finger.getMinDistanceSwipe());
+        assertEquals(345, finger.getMaxDurationSwipe());
+        assertEquals(6, finger.getMinDistanceMove());
+        assertEquals(210, finger.getMaxDurationDoubleTap());
+        assertEquals(90, finger.getMaxDownDoubleTap());
+        assertEquals(1.25, finger.getSlopeIntolerance(), 0);
+    }
+
+    @Test
+    public void tune_countsConfusionForEachConfig() {
+        double[][] configs = ThresholdTuner.grid(new double[][]{
+                {30, 1000}, {300}, {30}, {250}, {100}, {1}});
+        ThresholdTuner.Result[] results = new ThresholdTuner(new ForkJoinPool(2)).tune(corpus, configs);
+
+        assertEquals(2, results.length);
+        assertEquals(1.0, results[0].getAccuracy(), 0);
+        assertEquals(2, results[1].getTotal());
+        assertEquals(1, results[1].getCorrect());
+        assertEquals(1, results[1].getConfusion(GestureDetector.SWIPE_LEFT, GestureDetector.UP));
+    }
+}
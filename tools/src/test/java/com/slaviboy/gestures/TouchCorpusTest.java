@@ -0,0 +1,53 @@
+package com.slaviboy.gestures;
+
+import android.view.MotionEvent;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the TouchCorpus text format.
+ */
+public class TouchCorpusTest {
+
+    @Test
+    public void load_readsSequencesAndSamples() throws IOException {
+        TouchCorpus corpus = TouchCorpus.load(new StringReader(
+                "# left swipe\n" +
+                        "sequence SWIPE_LEFT\n" +
+                        "DOWN 500 300 1000\n" +
+                        "MOVE 420 302 1040\n" +
+                        "UP 300 305 1090\n" +
+                        "\n" +
+                        "sequence 12\n" +
+                        "DOWN 10 10 0\n"));
+
+        assertEquals(2, corpus.getSequenceCount());
+        assertEquals(4, corpus.getSampleCount());
+        assertEquals(GestureDetector.SWIPE_LEFT, corpus.getLabel(0));
+        assertEquals(GestureDetector.DOUBLE_TAP, corpus.getLabel(1));
+        assertEquals(3, corpus.getSequenceEnd(0));
+        assertEquals(MotionEvent.ACTION_MOVE, corpus.getAction(1));
+        assertEquals(420, corpus.getX(1), 0);
+        assertEquals(1090, corpus.getTime(2));
+    }
+
+    @Test(expected = IOException.class)
+    public void load_rejectsLabelOutOfRange() throws IOException {
+        TouchCorpus.load(new StringReader("sequence " + GestureDetector.STATE_COUNT + "\n"));
+    }
+
+    @Test(expected = IOException.class)
+    public void load_rejectsNegativeLabel() throws IOException {
+        TouchCorpus.load(new StringReader("sequence -1\n"));
+    }
+
+    @Test(expected = IOException.class)
+    public void load_rejectsSampleBeforeSequence() throws IOException {
+        TouchCorpus.load(new StringReader("DOWN 10 10 0\n"));
+    }
+}